@@ -0,0 +1,76 @@
+package com.planit.benchmarks;
+
+import com.planit.model.Event;
+import com.planit.repository.EventCursor;
+import com.planit.repository.EventFilter;
+import com.planit.seed.SyntheticEvents;
+import com.planit.store.CompactEventStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups against the in-memory read store behind GET /api/events, for the
+ * filter shapes the UI sends. Uses the same seeded synthetic events as the
+ * load test; setup prints the store's estimated bytes per event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CompactEventStoreBenchmark {
+
+    private static final Instant FROM = Instant.parse("2026-03-01T00:00:00Z");
+    private static final int SPAN_DAYS = 90;
+
+    @Param({"10000", "100000", "1000000"})
+    public int events;
+
+    private CompactEventStore store;
+    private EventFilter category;
+    private EventFilter categoryAndGenreInWeek;
+    private EventCursor midway;
+
+    @Setup
+    public void setup() {
+        List<Event> generated = SyntheticEvents.generate(events, FROM, SPAN_DAYS, 18);
+        for (int i = 0; i < generated.size(); i++) {
+            generated.get(i).setId((long) i + 1);
+        }
+        store = CompactEventStore.of(generated);
+        System.out.println("\n" + events + " events: " + store.estimatedBytes() / events + " bytes/event");
+
+        String music = SyntheticEvents.categories().get(0);
+        category = EventFilter.of(List.of(music), null, null, null);
+        Instant week = FROM.plus(30, ChronoUnit.DAYS);
+        categoryAndGenreInWeek = EventFilter.of(List.of(music), SyntheticEvents.genres(music).subList(0, 2),
+                week, week.plus(7, ChronoUnit.DAYS));
+        midway = new EventCursor(FROM.plus(SPAN_DAYS / 2, ChronoUnit.DAYS), 0);
+    }
+
+    @Benchmark
+    public List<Event> firstPage() {
+        return store.query(EventFilter.of(null, null, null, null), null, 100);
+    }
+
+    @Benchmark
+    public List<Event> categoryPage() {
+        return store.query(category, null, 100);
+    }
+
+    @Benchmark
+    public List<Event> categoryPageFromCursor() {
+        return store.query(category, midway, 100);
+    }
+
+    // the bitmap intersection plus a binary-searched window, returned whole
+    @Benchmark
+    public List<Event> categoryAndGenreInWeek() {
+        return store.query(categoryAndGenreInWeek, null, null);
+    }
+}
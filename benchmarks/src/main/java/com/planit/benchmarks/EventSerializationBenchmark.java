@@ -0,0 +1,72 @@
+package com.planit.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.planit.model.Event;
+import com.planit.service.TicketmasterEventParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializing the GET /api/events body, with the mapper configured the way
+ * Spring Boot configures it (java.time as ISO strings).
+ *
+ * Events are built from the Ticketmaster fixture, repeated with distinct ids
+ * up to the requested count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EventSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int events;
+
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<Event> page;
+
+    @Setup
+    public void setup() throws IOException {
+        TicketmasterEventParser parser = new TicketmasterEventParser(mapper);
+        JsonNode fixture = mapper.readTree(Fixtures.load("ticketmaster-page.json")).path("_embedded").path("events");
+
+        page = new ArrayList<>(events);
+        for (int n = 0; n < events; n++) {
+            Event event = parser.map(fixture.get(n % fixture.size()));
+            event.setId((long) n + 1);
+            event.setExternalId(event.getExternalId() + "-" + n);
+            page.add(event);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    // what EventQueryService stores alongside the plain body for large responses
+    @Benchmark
+    public byte[] writeJsonGzipped() throws IOException {
+        byte[] body = mapper.writeValueAsBytes(page);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        }
+        return out.toByteArray();
+    }
+}
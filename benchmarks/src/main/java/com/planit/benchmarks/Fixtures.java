@@ -0,0 +1,25 @@
+package com.planit.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Canned provider responses checked in under src/main/resources/fixtures.
+ *
+ * ticketmaster-page.json  one 200-event Discovery API page for Austin
+ * mindbody-classes.json   100 classes from /class/classes
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static byte[] load(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + name);
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
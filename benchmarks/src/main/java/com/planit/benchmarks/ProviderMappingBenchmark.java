@@ -0,0 +1,77 @@
+package com.planit.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.service.MindbodyClassParser;
+import com.planit.service.TicketmasterEventParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider JSON to {@link com.planit.model.Event}, per fixture page.
+ *
+ * *StreamingParse is what a crawl does for every page: tokenize the body,
+ * build one tree per event and map it. *MapOnly isolates the mapping (path
+ * walks, time parsing, coordinates) from the JSON parsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProviderMappingBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TicketmasterEventParser ticketmaster = new TicketmasterEventParser(mapper);
+    private final MindbodyClassParser mindbody = new MindbodyClassParser(mapper);
+
+    private byte[] ticketmasterPage;
+    private byte[] mindbodyPage;
+    private List<JsonNode> ticketmasterNodes;
+    private List<JsonNode> mindbodyNodes;
+
+    @Setup
+    public void setup() throws IOException {
+        ticketmasterPage = Fixtures.load("ticketmaster-page.json");
+        mindbodyPage = Fixtures.load("mindbody-classes.json");
+        ticketmasterNodes = elements(mapper.readTree(ticketmasterPage).path("_embedded").path("events"));
+        mindbodyNodes = elements(mapper.readTree(mindbodyPage).path("Classes"));
+    }
+
+    @Benchmark
+    public int ticketmasterStreamingParse(Blackhole bh) throws IOException {
+        return ticketmaster.parse(new ByteArrayInputStream(ticketmasterPage), bh::consume);
+    }
+
+    @Benchmark
+    public void ticketmasterMapOnly(Blackhole bh) {
+        for (JsonNode node : ticketmasterNodes) {
+            bh.consume(ticketmaster.map(node));
+        }
+    }
+
+    @Benchmark
+    public int mindbodyStreamingParse(Blackhole bh) throws IOException {
+        return mindbody.parse(new ByteArrayInputStream(mindbodyPage), bh::consume);
+    }
+
+    @Benchmark
+    public void mindbodyMapOnly(Blackhole bh) {
+        for (JsonNode node : mindbodyNodes) {
+            bh.consume(mindbody.map(node));
+        }
+    }
+
+    private static List<JsonNode> elements(JsonNode array) {
+        List<JsonNode> nodes = new ArrayList<>(array.size());
+        array.forEach(nodes::add);
+        return nodes;
+    }
+}
@@ -0,0 +1,86 @@
+package com.planit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The individual time conversions the provider mappers make per event, to
+ * see which are worth caching or avoiding.
+ *
+ * Ticketmaster: Instant.parse of dates.start.dateTime, or LocalDate/LocalTime
+ * plus ZoneId.of(dates.timezone) when only local values are sent.
+ * Mindbody: LocalDateTime.parse plus the studio zone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TimeNormalizationBenchmark {
+
+    private static final int SAMPLES = 1024;
+    private static final String[] ZONES = {"America/Chicago", "America/New_York", "America/Denver", "America/Los_Angeles"};
+    private static final ZoneId CHICAGO = ZoneId.of("America/Chicago");
+
+    private final String[] instants = new String[SAMPLES];
+    private final String[] localDates = new String[SAMPLES];
+    private final String[] localTimes = new String[SAMPLES];
+    private final String[] zones = new String[SAMPLES];
+    private final String[] localDateTimes = new String[SAMPLES];
+    private int i;
+
+    @Setup
+    public void setup() {
+        Instant base = Instant.parse("2026-03-01T00:00:00Z");
+        for (int n = 0; n < SAMPLES; n++) {
+            Instant start = base.plus(Duration.ofMinutes(n * 97L));
+            LocalDateTime local = LocalDateTime.ofInstant(start, CHICAGO);
+            instants[n] = start.toString();
+            localDates[n] = local.toLocalDate().toString();
+            localTimes[n] = local.toLocalTime().withNano(0).toString() + (local.getSecond() == 0 ? ":00" : "");
+            zones[n] = ZONES[n % ZONES.length];
+            localDateTimes[n] = local.withNano(0).toString() + (local.getSecond() == 0 ? ":00" : "");
+        }
+    }
+
+    private int next() {
+        return i = (i + 1) & (SAMPLES - 1);
+    }
+
+    @Benchmark
+    public Instant ticketmasterInstantParse() {
+        return Instant.parse(instants[next()]);
+    }
+
+    @Benchmark
+    public Instant ticketmasterLocalWithZoneLookup() {
+        int n = next();
+        return ZonedDateTime.of(LocalDate.parse(localDates[n]), LocalTime.parse(localTimes[n]), ZoneId.of(zones[n]))
+                .toInstant();
+    }
+
+    @Benchmark
+    public Instant ticketmasterLocalWithCachedZone() {
+        int n = next();
+        return ZonedDateTime.of(LocalDate.parse(localDates[n]), LocalTime.parse(localTimes[n]), CHICAGO)
+                .toInstant();
+    }
+
+    @Benchmark
+    public ZoneId zoneLookup() {
+        return ZoneId.of(zones[next()]);
+    }
+
+    @Benchmark
+    public Instant mindbodyLocalDateTimeWithZoneLookup() {
+        return LocalDateTime.parse(localDateTimes[next()]).atZone(ZoneId.of("America/Chicago")).toInstant();
+    }
+
+    @Benchmark
+    public Instant mindbodyLocalDateTimeWithCachedZone() {
+        return LocalDateTime.parse(localDateTimes[next()]).atZone(CHICAGO).toInstant();
+    }
+}
@@ -1,5 +1,5 @@
 // src/App.jsx
-import React, { useState, useEffect } from 'react'
+import React, { useState, useEffect, useRef } from 'react'
 import axios from 'axios'
 import { Calendar, dateFnsLocalizer, Views } from 'react-big-calendar'
 import { format, parseISO, startOfWeek, getDay, addWeeks } from 'date-fns'
@@ -28,11 +28,14 @@ export default function App() {
 
   const selectedGenres = selectedByCategory[category] || []
 
+  // server-side facets: [{ name, count, genres: [{ name, count }] }]
+  const [facets, setFacets] = useState([])
+
   const genresForCurrentCategory = Array.from(
     new Set(
-      allEvents
-        .filter(e => category === 'All' || e.category === category)
-        .map(e => e.genre)
+      facets
+        .filter(f => category === 'All' || f.name === category)
+        .flatMap(f => f.genres.map(g => g.name))
     )
   ).filter(Boolean)
 
@@ -48,9 +51,15 @@ export default function App() {
 
   const API = process.env.REACT_APP_API_URL || '';
 
+  // only load the visible week; refetch when navigating
+  const weekStartIso = startOfWeek(currentDate).toISOString()
+  const ingestTriggered = useRef(false)
+
   useEffect(() => {
     const fetchEvents = async () => {
-      const eventsUrl = `${API}/api/events`;
+      const from = weekStartIso;
+      const to   = addWeeks(new Date(weekStartIso), 1).toISOString();
+      const eventsUrl = `${API}/api/events?from=${encodeURIComponent(from)}&to=${encodeURIComponent(to)}`;
 
       // 1. try to load existing events
       let list = [];
@@ -61,12 +70,19 @@ export default function App() {
         console.log("Initial fetch failed:", e.message);
       }
 
-      // 2. if empty → trigger backend ingest
-      if (!list || list.length === 0) {
+      // 2. if empty on first load → trigger backend ingest
+      if ((!list || list.length === 0) && !ingestTriggered.current) {
+        ingestTriggered.current = true;
         console.log("DB empty → triggering Ticketmaster fetch");
 
         try {
-          await axios.post(`${API}/api/admin/fetch-events`);
+          // ingest runs as a background job → poll until it finishes
+          const { data: job } = await axios.post(`${API}/api/admin/fetch-events`);
+          for (let i = 0; job?.jobId && i < 60; i++) {
+            await new Promise(resolve => setTimeout(resolve, 2000));
+            const { data: status } = await axios.get(`${API}/api/admin/jobs/${job.jobId}`);
+            if (status.state === 'SUCCEEDED' || status.state === 'FAILED') break;
+          }
         } catch (e) {
           console.log("Fetch-events failed:", e.message);
         }
@@ -101,23 +117,29 @@ export default function App() {
       setAllEvents(mapped);
     };
     fetchEvents();
-  }, [API]);
+  }, [API, weekStartIso]);
 
 
 
-   // Recompute categories whenever events change; reset invalid selection
-   useEffect(() => {
-     // avoid re-creating Set work if you like
-     // import { useMemo } from 'react'
-     const catsFromData = Array.from(new Set(allEvents.map(e => e.category))).filter(Boolean);
+  // Load the filter options from the facets endpoint instead of deriving them from events;
+  // reload once events show up in case the first load triggered an ingest
+  const hasEvents = allEvents.length > 0
+  useEffect(() => {
+    axios.get(`${API}/api/events/facets`)
+      .then(({ data }) => setFacets(Array.isArray(data?.categories) ? data.categories : []))
+      .catch(e => console.log("Facets fetch failed:", e.message));
+  }, [API, hasEvents]);
 
+  // Keep the category list in sync with the facets; reset invalid selection
+  useEffect(() => {
+    const catsFromFacets = facets.map(f => f.name).filter(Boolean);
 
-     setCategories(['All', ...catsFromData]);
+    setCategories(['All', ...catsFromFacets]);
 
-     if (category !== 'All' && !catsFromData.includes(category)) {
-       setCategory('All');
-     }
-   }, [allEvents, category]);
+    if (category !== 'All' && !catsFromFacets.includes(category)) {
+      setCategory('All');
+    }
+  }, [facets, category]);
 
   // Client-side filtering
   const filteredEvents = allEvents.filter(evt => {
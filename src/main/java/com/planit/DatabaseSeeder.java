@@ -1,74 +1,96 @@
 package com.planit;
 
+import com.planit.geo.GeoHash;
+import com.planit.ingest.EventContentHash;
+import com.planit.ingest.EventDeduplicator;
 import com.planit.model.Event;
-import com.planit.repository.EventRepository;
+import com.planit.seed.SyntheticEvents;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.sql.Timestamp;
 import java.time.*;
 import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
+/**
+ * Fills an empty database with synthetic events for local development and
+ * load tests. {@code seed.events} sets how many (a week's worth by default);
+ * rows go in with batched INSERTs so a few hundred thousand take seconds.
+ *
+ * Runs as a CommandLineRunner, i.e. before ApplicationReadyEvent, so the
+ * in-memory read indexes load the seeded rows.
+ */
 @Configuration
-@Profile("dev")
+@Profile({"dev", "loadtest"})
 public class DatabaseSeeder {
 
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO event (provider, external_id, title, category, genre, "
+            + "start_time, end_time, url, venue_name, latitude, longitude, geohash, dedup_key, content_hash) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Value("${seed.events:7}")
+    private int eventCount;
+
+    // start times are spread over this many days from the start of the week
+    @Value("${seed.span-days:0}")
+    private int spanDays;
+
+    @Value("${seed.random-seed:18}")
+    private long randomSeed;
+
     @Bean
-    CommandLineRunner initDatabase(EventRepository repository) {
+    CommandLineRunner initDatabase(JdbcTemplate jdbcTemplate) {
         return args -> {
             // Avoid reseeding if DB already has events
-            if (repository.count() > 0) {
+            Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM event", Long.class);
+            if (existing != null && existing > 0) {
                 System.out.println("Database already contains events — skipping seeder.");
                 return;
             }
 
-            // Choose zone (use system zone or inject via props)
-            ZoneId zone = ZoneId.systemDefault();
-
-            // Today's date in that zone
-            LocalDate today = LocalDate.now(zone);
-
             // First day of week according to current locale
+            ZoneId zone = ZoneId.systemDefault();
             DayOfWeek firstDayOfWeek = WeekFields.of(Locale.getDefault()).getFirstDayOfWeek();
-            LocalDate startOfWeek = today.with(TemporalAdjusters.previousOrSame(firstDayOfWeek));
+            LocalDate startOfWeek = LocalDate.now(zone).with(TemporalAdjusters.previousOrSame(firstDayOfWeek));
 
-            // Create one event per day at 19:00 - 22:00
-            for (int d = 0; d < 7; d++) {
-                LocalDate day = startOfWeek.plusDays(d);
+            // ~200 events a day unless told otherwise, like a busy city
+            int days = spanDays > 0 ? spanDays : Math.max(7, eventCount / 200);
+            long started = System.currentTimeMillis();
 
-                LocalTime startTimeLocal = LocalTime.of(19, 0); // 7 PM local
-                LocalTime endTimeLocal   = LocalTime.of(22, 0); // 10 PM local
-
-                ZonedDateTime startZdt = ZonedDateTime.of(day, startTimeLocal, zone);
-                ZonedDateTime endZdt   = ZonedDateTime.of(day, endTimeLocal,   zone);
-
-                Instant startInstant = startZdt.toInstant();
-                Instant endInstant   = endZdt.toInstant();
-
-                Event event = new Event();
-                event.setTicketmasterId("seed-" + day.toString()); // unique-ish id per day
-                event.setTitle("Seeded Event — " + day.getDayOfWeek());
-                event.setCategory("Music");
-                event.setGenre("Rock");
-                event.setVenueName("Stubbs BBQ");
-
-                // store ISO instant strings (matches your model)
-                event.setStartTime(startInstant.toString()); // e.g. 2025-08-02T00:00:00Z
-                event.setEndTime(endInstant.toString());
-
-                // example coords as strings (your model uses Strings)
-                event.setLatitude("30.266");
-                event.setLongitude("-97.740");
-
-                event.setUrl("https://ticketmaster.com/event/seed-" + day.toString());
-
-                repository.save(event);
+            List<Event> events = SyntheticEvents.generate(
+                    eventCount, startOfWeek.atStartOfDay(zone).toInstant(), days, randomSeed);
+            for (int from = 0; from < events.size(); from += CHUNK_SIZE) {
+                insert(jdbcTemplate, events.subList(from, Math.min(events.size(), from + CHUNK_SIZE)));
             }
 
-            System.out.println("Seeded events for week starting " + startOfWeek);
+            System.out.println("Seeded " + events.size() + " events over " + days + " days from " + startOfWeek
+                    + " in " + (System.currentTimeMillis() - started) + " ms");
         };
     }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Event> chunk) {
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (Event event : chunk) {
+            event.setGeohash(GeoHash.encode(event.getLatitude(), event.getLongitude(), GeoHash.STORED_PRECISION));
+            event.setDedupKey(EventDeduplicator.dedupKey(event.getVenueName(), event.getStartTime()));
+            event.setContentHash(EventContentHash.of(event));
+            rows.add(new Object[] {
+                    event.getProvider(), event.getExternalId(), event.getTitle(), event.getCategory(),
+                    event.getGenre(), Timestamp.from(event.getStartTime()), Timestamp.from(event.getEndTime()),
+                    event.getUrl(), event.getVenueName(), event.getLatitude(), event.getLongitude(),
+                    event.getGeohash(), event.getDedupKey(), event.getContentHash()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
 }
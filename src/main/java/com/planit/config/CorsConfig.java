@@ -18,7 +18,8 @@ public class CorsConfig {
                                 "http://localhost:3000"                  // optional local dev
                         )
                         .allowedMethods("GET","POST","PUT","DELETE","OPTIONS")
-                        .allowedHeaders("*");
+                        .allowedHeaders("*")
+                        .exposedHeaders("X-Next-Cursor", "ETag");
             }
         };
     }
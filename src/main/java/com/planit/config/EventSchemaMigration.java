@@ -0,0 +1,143 @@
+package com.planit.config;
+
+import com.planit.geo.GeoHash;
+import com.planit.ingest.EventDeduplicator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-time fixes to the event table that ddl-auto=update can't make.
+ *
+ * ddl-auto=update adds new columns and indexes but never changes the type of an
+ * existing one, so databases created before start/end times became Instants
+ * and coordinates became doubles still have varchar columns. This converts
+ * them in place, parsing the existing values, and is a no-op afterwards.
+ * Runs after Hibernate's schema update and before the app takes traffic.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class EventSchemaMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventDeduplicator deduplicator;
+
+    public EventSchemaMigration(JdbcTemplate jdbcTemplate, EventDeduplicator deduplicator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deduplicator = deduplicator;
+    }
+
+    @PostConstruct
+    void migrate() {
+        if (isPostgres()) {
+            convertTextColumns();
+            createGeohashPrefixIndex();
+        }
+        backfillGeohash();
+        backfillDedupKeys();
+        backfillRegion();
+    }
+
+    private void convertTextColumns() {
+        List<String> textColumns = jdbcTemplate.queryForList("""
+                SELECT column_name FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = 'event'
+                  AND column_name IN ('start_time', 'end_time', 'latitude', 'longitude')
+                  AND data_type IN ('character varying', 'text')
+                """, String.class);
+        if (textColumns.isEmpty()) return;
+
+        System.out.println("Migrating event columns to typed values: " + textColumns);
+        long started = System.currentTimeMillis();
+
+        // values that don't parse become NULL rather than failing the whole migration
+        StringBuilder alter = new StringBuilder("ALTER TABLE event ");
+        for (String column : textColumns) {
+            if (alter.length() > "ALTER TABLE event ".length()) alter.append(", ");
+            if (column.endsWith("_time")) {
+                alter.append("ALTER COLUMN ").append(column).append(" TYPE timestamp(6) with time zone USING ")
+                        .append("CASE WHEN ").append(column)
+                        .append(" ~ '^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}' THEN ").append(column)
+                        .append("::timestamptz END");
+            } else {
+                alter.append("ALTER COLUMN ").append(column).append(" TYPE double precision USING ")
+                        .append("CASE WHEN ").append(column)
+                        .append(" ~ '^\\s*-?\\d+(\\.\\d+)?\\s*$' THEN ").append(column)
+                        .append("::double precision END");
+            }
+        }
+
+        jdbcTemplate.execute(alter.toString());
+        System.out.println("Event column migration finished in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    /**
+     * A default btree index can't serve LIKE 'prefix%' under a non-C collation;
+     * varchar_pattern_ops can.
+     */
+    private void createGeohashPrefixIndex() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_event_geohash ON event (geohash varchar_pattern_ops)");
+    }
+
+    /**
+     * Rows written before the geohash column existed only get one when their
+     * content changes, so compute the missing ones here.
+     */
+    private void backfillGeohash() {
+        List<Object[]> updates = jdbcTemplate.query(
+                "SELECT id, latitude, longitude FROM event "
+                        + "WHERE geohash IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL",
+                (rs, rowNum) -> new Object[] {
+                        GeoHash.encode(rs.getDouble("latitude"), rs.getDouble("longitude"), GeoHash.STORED_PRECISION),
+                        rs.getLong("id")
+                });
+        if (updates.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate("UPDATE event SET geohash = ? WHERE id = ?", updates);
+        System.out.println("Backfilled geohash for " + updates.size() + " events");
+    }
+
+    /**
+     * Rows written before cross-provider dedup have no blocking key and were
+     * never compared; key them and link the whole table once.
+     */
+    private void backfillDedupKeys() {
+        List<Object[]> updates = jdbcTemplate.query(
+                "SELECT id, venue_name, start_time FROM event "
+                        + "WHERE dedup_key IS NULL AND venue_name IS NOT NULL AND start_time IS NOT NULL",
+                (rs, rowNum) -> new Object[] {
+                        EventDeduplicator.dedupKey(rs.getString("venue_name"), rs.getTimestamp("start_time").toInstant()),
+                        rs.getLong("id")
+                });
+        updates.removeIf(update -> update[0] == null);
+        if (updates.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate("UPDATE event SET dedup_key = ? WHERE id = ?", updates);
+        System.out.println("Backfilled dedup key for " + updates.size() + " events");
+        deduplicator.relinkAll();
+    }
+
+    /**
+     * Ticketmaster and SeatGeek were only ever crawled for Austin before
+     * regions existed. Without a region their rows would never be
+     * tombstoned, since that's now done per region. Rows keyed by city
+     * alone, before keys included the state, move to the new key too.
+     */
+    private void backfillRegion() {
+        int updated = jdbcTemplate.update("UPDATE event SET region = 'austin-tx' "
+                + "WHERE (region IS NULL OR region = 'austin') AND provider IN ('TICKETMASTER', 'SEATGEEK')");
+        if (updated > 0) {
+            System.out.println("Backfilled region for " + updated + " events");
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                con.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
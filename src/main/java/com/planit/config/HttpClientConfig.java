@@ -0,0 +1,47 @@
+package com.planit.config;
+
+import com.planit.http.ProviderHttpClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * The shared client for all provider integrations; see {@link ProviderHttpClients}.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient providerHttpClient(
+            @Value("${http.client.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${http.client.read-timeout:30s}") Duration readTimeout,
+            @Value("${http.client.connection-request-timeout:10s}") Duration connectionRequestTimeout,
+            @Value("${http.client.max-connections:50}") int maxConnections,
+            @Value("${http.client.max-connections-per-host:10}") int maxConnectionsPerHost,
+            @Value("${http.client.idle-timeout:60s}") Duration idleTimeout,
+            @Value("${http.client.retry.max-retries:3}") int maxRetries,
+            @Value("${http.client.retry.base-delay:500ms}") Duration retryBaseDelay,
+            @Value("${http.client.retry.max-delay:10s}") Duration retryMaxDelay,
+            @Value("${http.client.breaker.failure-threshold:5}") int breakerFailureThreshold,
+            @Value("${http.client.breaker.open-duration:60s}") Duration breakerOpenDuration,
+            MeterRegistry meterRegistry
+    ) {
+        return ProviderHttpClients.create(new ProviderHttpClients.Settings(
+                connectTimeout, readTimeout, connectionRequestTimeout,
+                maxConnections, maxConnectionsPerHost, idleTimeout,
+                maxRetries, retryBaseDelay, retryMaxDelay,
+                breakerFailureThreshold, breakerOpenDuration
+        ), meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate providerRestTemplate(CloseableHttpClient providerHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(providerHttpClient));
+    }
+}
@@ -1,33 +1,128 @@
 package com.planit.controller;
 
-import com.planit.service.TicketmasterService;
+import com.planit.ingest.IngestionJob;
+import com.planit.ingest.IngestionJobService;
+import com.planit.ingest.IngestionOrchestrator;
+import com.planit.service.EventResponseCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/admin")
 public class AdminController {
 
-    private final TicketmasterService ticketmasterService;
-   // private final SeatGeekService seatGeekService;
+    private final IngestionOrchestrator ingestionOrchestrator;
+    private final IngestionJobService ingestionJobService;
+    private final EventResponseCache eventResponseCache;
 
     @PostMapping("/fetch-events")
-    public Map<String, Object> fetchEvents() {
-        ticketmasterService.fetchAndSaveEvents();
-        return Map.of("status", "ok");
+    public ResponseEntity<?> fetchEvents(@RequestHeader("X-Admin-Token") String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+        return accepted(ingestionJobService.submit("TICKETMASTER"));
     }
 
-    /*@PostMapping("/fetch-events/seatgeek")
-    public ResponseEntity<String> fetchSeatGeek(@RequestHeader("X-Admin-Token") String token) {
-        if (!token.equals(System.getenv("ADMIN_TOKEN"))) {
+    // ?region=dallas-tx refreshes one region; without it every configured region
+    @PostMapping("/fetch-events/{provider}")
+    public ResponseEntity<?> fetchProvider(@PathVariable String provider,
+                                           @RequestParam(value = "region", required = false) String region,
+                                           @RequestHeader("X-Admin-Token") String token) {
+        if (!isAdmin(token)) {
             return ResponseEntity.status(403).body("Forbidden");
         }
-        seatGeekService.fetchAndSaveEvents();
-        return ResponseEntity.ok("SeatGeek fetch triggered");
-    }*/
+
+        String name = provider.toUpperCase(Locale.ROOT);
+        if (!ingestionOrchestrator.hasProvider(name) || (region != null && !ingestionOrchestrator.hasRegion(region))) {
+            return ResponseEntity.notFound().build();
+        }
+        return accepted(ingestionJobService.submit(List.of(name), regions(region)));
+    }
+
+    // re-maps archived responses fetched in [from, to) without calling the provider;
+    // ?region= may name a region that's no longer configured
+    @PostMapping("/replay/{provider}")
+    public ResponseEntity<?> replayProvider(@PathVariable String provider,
+                                            @RequestParam(value = "region", required = false) String region,
+                                            @RequestParam(value = "from", required = false) Instant from,
+                                            @RequestParam(value = "to", required = false) Instant to,
+                                            @RequestHeader("X-Admin-Token") String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        String name = provider.toUpperCase(Locale.ROOT);
+        if (!ingestionOrchestrator.hasProvider(name)) {
+            return ResponseEntity.notFound().build();
+        }
+        return accepted(ingestionJobService.submitReplay(List.of(name), regions(region), from, to));
+    }
+
+    // configured ingestion.regions, i.e. valid values for ?region=
+    @GetMapping("/regions")
+    public ResponseEntity<?> configuredRegions(@RequestHeader("X-Admin-Token") String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+        return ResponseEntity.ok(ingestionOrchestrator.regions());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id, @RequestHeader("X-Admin-Token") String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+        return ingestionJobService.find(id)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(job.status()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // hit/miss/eviction counters for sizing events.cache.*
+    @GetMapping("/cache")
+    public ResponseEntity<?> cacheStats(@RequestHeader("X-Admin-Token") String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+        return ResponseEntity.ok(eventResponseCache.stats());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> jobQueueFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Ingestion queue is full, try again later");
+    }
+
+    static ResponseEntity<Map<String, Object>> accepted(IngestionJobService.Submission submission) {
+        IngestionJob job = submission.job();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("jobId", job.getId());
+        body.put("kind", job.getKind());
+        body.put("state", job.getState());
+        body.put("providers", job.getProviders());
+        body.put("regions", job.getRegions());
+        body.put("deduplicated", submission.deduplicated());
+        body.put("jobIds", submission.jobs().stream().map(IngestionJob::getId).toList());
+        body.put("statusUrl", "/api/admin/jobs/" + job.getId());
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+    }
+
+    // every endpoint here starts crawls or exposes job and cache internals
+    private static boolean isAdmin(String token) {
+        return token.equals(System.getenv("ADMIN_TOKEN"));
+    }
+
+    static List<String> regions(String region) {
+        return region != null ? List.of(region) : List.of();
+    }
 }
@@ -1,110 +1,400 @@
 package com.planit.controller;
 
+import com.planit.ingest.IngestionJobService;
 import com.planit.model.Event;
-import com.planit.repository.EventRepository;
-import com.planit.service.MindbodyService;
-import com.planit.service.TicketmasterService;
-// import com.planit.service.SeatGeekService;
+import com.planit.repository.EventCursor;
+import com.planit.repository.EventFilter;
+import com.planit.service.EventCalendarService;
+import com.planit.service.EventChangeFeed;
+import com.planit.service.EventDataVersion;
+import com.planit.service.EventExportService;
+import com.planit.service.EventFacetService;
+import com.planit.service.EventQueryService;
+import com.planit.service.EventResponseCache;
+import com.planit.service.EventSearchService;
+import com.planit.service.NearbyEventService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @CrossOrigin(origins = {
         "http://localhost:5173",
         "https://YOUR-NETLIFY-SITE.netlify.app"
-})
+}, exposedHeaders = { EventController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG })
 @RestController
 @RequestMapping("/api")
 public class EventController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+
+    static final MediaType CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
+    @Autowired
+    private EventQueryService eventQueryService;
+
+    @Autowired
+    private EventDataVersion eventDataVersion;
+
+    @Autowired
+    private EventFacetService eventFacetService;
+
     @Autowired
-    private EventRepository eventRepository;
+    private EventExportService eventExportService;
 
     @Autowired
-    private TicketmasterService ticketmasterService;
+    private EventChangeFeed eventChangeFeed;
 
     @Autowired
-    private MindbodyService mindbodyService;
+    private EventCalendarService eventCalendarService;
 
-    // @Autowired
-    // private SeatGeekService seatGeekService;
+    @Autowired
+    private NearbyEventService nearbyEventService;
+
+    @Autowired
+    private EventSearchService eventSearchService;
+
+    @Autowired
+    private IngestionJobService ingestionJobService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // shape/outcome -> timer; both are small closed sets
+    private final Map<String, Timer> requestTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Events matching the filters, ordered by start time.
+     *
+     * from/to are ISO instants bounding startTime (from inclusive, to exclusive).
+     * With a limit, results are paged on (startTime, id): when more rows remain
+     * the X-Next-Cursor header carries an opaque cursor to pass back as ?cursor=.
+     *
+     * Responses carry an ETag and Last-Modified derived from the dataset version,
+     * so a client revalidating unchanged data gets a bodiless 304. Large bodies
+     * are sent gzip-compressed when the client accepts it.
+     *
+     * Timed as events.api.requests, tagged by which filters were used and
+     * the response status.
+     */
     @GetMapping("/events")
-    public List<Event> getEvents(
+    public ResponseEntity<byte[]> getEvents(
             @RequestParam(value = "category", required = false) List<String> categories,
-            @RequestParam(value = "genre", required = false) List<String> genres
+            @RequestParam(value = "genre", required = false) List<String> genres,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
     ) {
-        if (categories != null) {
-            categories = categories.stream()
-                    .filter(s -> s != null && !s.trim().isEmpty() && !s.equalsIgnoreCase("all"))
-                    .collect(Collectors.toList());
-            if (categories.isEmpty()) categories = null;
+        long started = System.nanoTime();
+        String shape = filterShape(categories, genres, from, to, limit, cursor);
+        String outcome = "error";
+        try {
+            ResponseEntity<byte[]> response = findEvents(categories, genres, from, to, limit, cursor, acceptEncoding, request);
+            // a null response is the 304 set up by checkNotModified
+            outcome = response != null ? String.valueOf(response.getStatusCode().value()) : "304";
+            return response;
+        } finally {
+            requestTimer(shape, outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer requestTimer(String shape, String outcome) {
+        return requestTimers.computeIfAbsent(shape + "/" + outcome, key -> Timer.builder("events.api.requests")
+                .description("GET /api/events latency by filter shape")
+                .tag("shape", shape)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private ResponseEntity<byte[]> findEvents(List<String> categories, List<String> genres, Instant from, Instant to,
+                                              Integer limit, String cursor, String acceptEncoding, WebRequest request) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
         }
 
-        if (genres != null) {
-            genres = genres.stream()
-                    .filter(s -> s != null && !s.trim().isEmpty())
-                    .collect(Collectors.toList());
-            if (genres.isEmpty()) genres = null;
+        EventCursor after;
+        try {
+            after = cursor != null ? EventCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
         }
 
-        if (categories == null && genres == null) {
-            return eventRepository.findAll();
+        EventFilter filter = EventFilter.of(categories, genres, from, to);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        // read the version before the data so a concurrent refresh can only make the tag stale, never the body;
+        // the cache is cleared before the version moves (see their listeners' @Order)
+        EventDataVersion.Snapshot version = eventDataVersion.current();
+        // looked up before the 304 check (usually a cache hit), since only the body
+        // says whether it's big enough to go out gzipped
+        EventResponseCache.CachedResponse page = eventQueryService.findSerialized(filter, limit, after);
+        boolean gzipped = gzip && page.gzipped() != null;
+        String eTag = "\"" + version.version() + "-"
+                + Integer.toHexString(eventQueryService.cacheKey(filter, limit, after).hashCode())
+                + (gzipped ? "-gz" : "") + "\"";
+
+        if (request.checkNotModified(eTag, version.lastModified().toEpochMilli())) {
+            return null; // 304, headers already set
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .lastModified(version.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
         }
-        if (categories != null && genres != null) {
-            return eventRepository.findByCategoryInAndGenreIn(categories, genres);
+        if (gzipped) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.gzipped());
         }
-        if (categories != null) {
-            return eventRepository.findByCategoryIn(categories);
+        return response.body(page.body());
+    }
+
+    /**
+     * Every event matching the filters as newline-delimited JSON, one event
+     * per line in (startTime, id) order, streamed straight from the database.
+     * Meant for bulk consumers; unlike GET /api/events it isn't cached and
+     * never holds the result in memory. Also served for GET /api/events with
+     * Accept: application/x-ndjson.
+     */
+    @GetMapping("/events/export")
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @RequestParam(value = "category", required = false) List<String> categories,
+            @RequestParam(value = "genre", required = false) List<String> genres,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to
+    ) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
         }
 
-        return eventRepository.findByGenreIn(genres);
+        EventFilter filter = EventFilter.of(categories, genres, from, to);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .cacheControl(CacheControl.noStore())
+                .body(out -> eventExportService.export(filter, out));
     }
 
-    @PostMapping("/fetch-ticketmaster")
-    public ResponseEntity<String> fetchTicketmaster(@RequestHeader("X-Admin-Token") String token) {
-        if (!token.equals(System.getenv("ADMIN_TOKEN"))) {
-            return ResponseEntity.status(403).body("Forbidden");
+    @GetMapping(value = "/events", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getEventsAsNdjson(
+            @RequestParam(value = "category", required = false) List<String> categories,
+            @RequestParam(value = "genre", required = false) List<String> genres,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to
+    ) {
+        return exportEvents(categories, genres, from, to);
+    }
+
+    /**
+     * iCalendar feed of the events matching the filters, for subscribing from
+     * Google or Apple Calendar. Covers recent and upcoming events; each
+     * filter's feed is rendered once per dataset version, and pollers
+     * revalidating with If-None-Match get a bodiless 304.
+     */
+    @GetMapping("/events.ics")
+    public ResponseEntity<byte[]> getCalendarFeed(
+            @RequestParam(value = "category", required = false) List<String> categories,
+            @RequestParam(value = "genre", required = false) List<String> genres,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
+    ) {
+        EventFilter filter = eventCalendarService.filter(categories, genres);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        // version before data, and the body before the tag, as in getEvents
+        EventDataVersion.Snapshot version = eventDataVersion.current();
+        EventResponseCache.CachedResponse feed = eventCalendarService.feed(filter);
+        boolean gzipped = gzip && feed.gzipped() != null;
+        String eTag = "\"" + version.version() + "-ics-"
+                + Integer.toHexString(eventCalendarService.cacheKey(filter).hashCode())
+                + (gzipped ? "-gz" : "") + "\"";
+        if (request.checkNotModified(eTag, version.lastModified().toEpochMilli())) {
+            return null;
         }
 
-        ticketmasterService.fetchAndSaveEvents();
-        return ResponseEntity.ok("Ticketmaster fetch triggered");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(CALENDAR)
+                .eTag(eTag)
+                .lastModified(version.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"planit.ics\"");
+        if (gzipped) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(feed.gzipped());
+        }
+        return response.body(feed.body());
     }
 
-    @PostMapping("/fetch-mindbody")
-    public ResponseEntity<String> fetchMindbody(@RequestHeader("X-Admin-Token") String token) {
+    /**
+     * Server-Sent Events stream of ingestion changes: a "changes" event with
+     * the inserted and updated events and the removed ids after every
+     * committed batch, so clients can patch their list instead of reloading
+     * it. A "reset" event means changes were missed and the list should be
+     * reloaded. Reconnecting with Last-Event-ID resumes where it left off.
+     */
+    @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEventChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(eventChangeFeed.subscribe(lastEventId));
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Distinct categories, genres per category and event counts, optionally
+     * for a [from, to) window on startTime. Small enough to load the filter UI
+     * without downloading any events.
+     */
+    @GetMapping("/events/facets")
+    public ResponseEntity<EventFacetService.Facets> getFacets(
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to,
+            WebRequest request
+    ) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        EventDataVersion.Snapshot version = eventDataVersion.current();
+        String eTag = "\"" + version.version() + "-facets-" + from + "-" + to + "\"";
+        if (request.checkNotModified(eTag, version.lastModified().toEpochMilli())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(version.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .body(eventFacetService.facets(from, to));
+    }
+
+    /**
+     * Events within radiusKm of (lat, lon), nearest first, optionally limited
+     * to a [from, to) window on startTime. Each entry is the event plus its
+     * distanceKm.
+     */
+    @GetMapping("/events/nearby")
+    public ResponseEntity<List<NearbyEventService.NearbyEvent>> getNearbyEvents(
+            @RequestParam("lat") double lat,
+            @RequestParam("lon") double lon,
+            @RequestParam(value = "radiusKm", defaultValue = "10") double radiusKm,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180
+                || !(radiusKm > 0 && radiusKm <= NearbyEventService.MAX_RADIUS_KM)
+                || limit < 1 || (from != null && to != null && !from.isBefore(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(nearbyEventService.nearby(lat, lon, radiusKm, from, to, Math.min(limit, 1000)));
+    }
+
+    /**
+     * Events whose title, venue, category or genre match every word of q,
+     * best match first. The last word may be partial, for search-as-you-type.
+     */
+    @GetMapping("/events/search")
+    public ResponseEntity<List<Event>> searchEvents(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        if (query.isBlank() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(eventSearchService.search(query, Math.min(limit, 200)));
+    }
+
+    // e.g. "category+window+paged"; a bounded set of values, unlike the filters themselves
+    private static String filterShape(List<String> categories, List<String> genres, Instant from, Instant to,
+                                      Integer limit, String cursor) {
+        StringJoiner shape = new StringJoiner("+");
+        if (categories != null && !categories.isEmpty()) shape.add("category");
+        if (genres != null && !genres.isEmpty()) shape.add("genre");
+        if (from != null || to != null) shape.add("window");
+        if (limit != null) shape.add(cursor != null ? "paged_cursor" : "paged");
+        return shape.length() > 0 ? shape.toString() : "all";
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    @PostMapping("/fetch-ticketmaster")
+    public ResponseEntity<?> fetchTicketmaster(@RequestHeader("X-Admin-Token") String token,
+                                               @RequestParam(value = "region", required = false) String region) {
         if (!token.equals(System.getenv("ADMIN_TOKEN"))) {
             return ResponseEntity.status(403).body("Forbidden");
         }
+        if (region != null && !ingestionJobService.hasRegion(region)) {
+            return ResponseEntity.notFound().build();
+        }
 
-        mindbodyService.fetchAndSaveEvents();
-        return ResponseEntity.ok("Mindbody fetch triggered");
+        return AdminController.accepted(
+                ingestionJobService.submit(List.of("TICKETMASTER"), AdminController.regions(region)));
     }
 
-    /*
-    @PostMapping("/fetch-seatgeek")
-    public ResponseEntity<String> fetchSeatGeek(@RequestHeader("X-Admin-Token") String token) {
+    @PostMapping("/fetch-mindbody")
+    public ResponseEntity<?> fetchMindbody(@RequestHeader("X-Admin-Token") String token) {
         if (!token.equals(System.getenv("ADMIN_TOKEN"))) {
             return ResponseEntity.status(403).body("Forbidden");
         }
 
-        seatGeekService.fetchAndSaveEvents();
-        return ResponseEntity.ok("SeatGeek fetch triggered");
+        return AdminController.accepted(ingestionJobService.submit("MINDBODY"));
     }
-    */
 
+    // Queues every registered provider as one job (optionally for one ?region=);
+    // poll /api/admin/jobs/{id} for progress
     @PostMapping("/fetch-all-events")
-    public ResponseEntity<String> fetchAllEvents(@RequestHeader("X-Admin-Token") String token) {
+    public ResponseEntity<?> fetchAllEvents(@RequestHeader("X-Admin-Token") String token,
+                                            @RequestParam(value = "region", required = false) String region) {
         if (!token.equals(System.getenv("ADMIN_TOKEN"))) {
             return ResponseEntity.status(403).body("Forbidden");
         }
+        if (region != null && !ingestionJobService.hasRegion(region)) {
+            return ResponseEntity.notFound().build();
+        }
 
-        ticketmasterService.fetchAndSaveEvents();
-        mindbodyService.fetchAndSaveEvents();
+        return AdminController.accepted(region != null
+                ? ingestionJobService.submit(List.copyOf(ingestionJobService.providerNames()), List.of(region))
+                : ingestionJobService.submitAll());
+    }
 
-        return ResponseEntity.ok("Ticketmaster + Mindbody fetch triggered");
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> jobQueueFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Ingestion queue is full, try again later");
     }
 }
@@ -0,0 +1,141 @@
+package com.planit.geo;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Fixed-size lat/lon grid for radius searches.
+ *
+ * Points are bucketed into square cells of {@code cellDegrees}; a query only
+ * visits the cells overlapping the search circle's bounding box and checks
+ * exact haversine distance for the points in them, so cost grows with the
+ * number of nearby points rather than the total.
+ *
+ * @param <T> payload stored with each point
+ */
+public class GeoGridIndex<T> {
+
+    public record Hit<T>(long id, T value, double distanceKm) {}
+
+    private record Point<T>(long id, double lat, double lon, T value) {}
+
+    private final double cellDegrees;
+    private final Map<Long, List<Point<T>>> cells = new HashMap<>();
+    private final Map<Long, Point<T>> byId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GeoGridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    public void put(long id, double lat, double lon, T value) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            Point<T> point = new Point<>(id, lat, lon, value);
+            byId.put(id, point);
+            cells.computeIfAbsent(cellKey(row(lat), col(lon)), k -> new ArrayList<>()).add(point);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            byId.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Points within {@code radiusKm} that pass the filter, nearest first.
+     */
+    public List<Hit<T>> within(double lat, double lon, double radiusKm, Predicate<T> filter, int limit) {
+        double latSpan = radiusKm / Haversine.KM_PER_DEGREE;
+        double maxAbsLat = Math.min(90, Math.abs(lat) + latSpan);
+        double cos = Math.cos(Math.toRadians(maxAbsLat));
+        // near the poles the circle covers every longitude
+        double lonSpan = cos < 1e-6 ? 180 : Math.min(180, radiusKm / (Haversine.KM_PER_DEGREE * cos));
+
+        int minRow = row(Math.max(-90, lat - latSpan));
+        int maxRow = row(Math.min(90, lat + latSpan));
+        int minCol = col(lon - lonSpan);
+        int maxCol = col(lon + lonSpan);
+        int colsAround = (int) Math.ceil(360 / cellDegrees);
+
+        List<Hit<T>> hits = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+
+        lock.readLock().lock();
+        try {
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    // wrap across the antimeridian
+                    int wrapped = Math.floorMod(c + colsAround / 2, colsAround) - colsAround / 2;
+                    long key = cellKey(r, wrapped);
+                    if (!visited.add(key)) continue;
+
+                    List<Point<T>> points = cells.get(key);
+                    if (points == null) continue;
+
+                    for (Point<T> p : points) {
+                        double distance = Haversine.distanceKm(lat, lon, p.lat(), p.lon());
+                        if (distance <= radiusKm && filter.test(p.value())) {
+                            hits.add(new Hit<>(p.id(), p.value(), distance));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit<T>::distanceKm).thenComparingLong(Hit::id));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private void removeLocked(long id) {
+        Point<T> existing = byId.remove(id);
+        if (existing == null) return;
+
+        long key = cellKey(row(existing.lat()), col(existing.lon()));
+        List<Point<T>> points = cells.get(key);
+        points.removeIf(p -> p.id() == id);
+        if (points.isEmpty()) cells.remove(key);
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellDegrees);
+    }
+
+    private int col(double lon) {
+        return (int) Math.floor(lon / cellDegrees);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
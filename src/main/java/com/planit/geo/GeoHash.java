@@ -0,0 +1,125 @@
+package com.planit.geo;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Standard base32 geohash encoding. Events store a 9-character hash
+ * (cells of a few meters) so prefix queries can narrow a search to nearby cells.
+ */
+public final class GeoHash {
+
+    public static final int STORED_PRECISION = 9;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private GeoHash() {}
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Cells that together cover every point within {@code radiusKm} of the
+     * given point: the cell containing it and its eight neighbors, at the
+     * finest precision whose cells are still at least radiusKm across.
+     */
+    public static Set<String> coveringCells(double latitude, double longitude, double radiusKm) {
+        int precision = STORED_PRECISION;
+        while (precision > 1 && !coversRadius(encode(latitude, longitude, precision), radiusKm)) {
+            precision--;
+        }
+
+        String center = encode(latitude, longitude, precision);
+        double[] box = bounds(center);
+        double latStep = box[1] - box[0];
+        double lonStep = box[3] - box[2];
+
+        Set<String> cells = new LinkedHashSet<>();
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                double lat = latitude + dLat * latStep;
+                if (lat > 90 || lat < -90) continue;
+                double lon = wrapLongitude(longitude + dLon * lonStep);
+                cells.add(encode(lat, lon, precision));
+            }
+        }
+        return cells;
+    }
+
+    private static boolean coversRadius(String cell, double radiusKm) {
+        double[] box = bounds(cell);
+        double heightKm = (box[1] - box[0]) * Haversine.KM_PER_DEGREE;
+        // cells narrow toward the poles; measure at the furthest latitude the radius can reach
+        double edgeLat = Math.min(90, Math.max(Math.abs(box[0]), Math.abs(box[1])) + radiusKm / Haversine.KM_PER_DEGREE);
+        double widthKm = (box[3] - box[2]) * Haversine.KM_PER_DEGREE * Math.cos(Math.toRadians(edgeLat));
+        return heightKm >= radiusKm && widthKm >= radiusKm;
+    }
+
+    /**
+     * @return {minLat, maxLat, minLon, maxLon} of the cell
+     */
+    static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+
+        for (int i = 0; i < hash.length(); i++) {
+            int value = BASE32.indexOf(hash.charAt(i));
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((value >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] {minLat, maxLat, minLon, maxLon};
+    }
+
+    private static double wrapLongitude(double lon) {
+        if (lon > 180) return lon - 360;
+        if (lon < -180) return lon + 360;
+        return lon;
+    }
+}
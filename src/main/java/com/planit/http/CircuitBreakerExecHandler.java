@@ -0,0 +1,74 @@
+package com.planit.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link CircuitBreaker} per target host, i.e. per provider. Sits outside
+ * the retry stage, so a call counts as one failure only after its retries
+ * are exhausted. 5xx and 429 responses count as failures; other 4xx don't,
+ * since they say the request is wrong rather than the provider is down.
+ */
+public class CircuitBreakerExecHandler implements ExecChainHandler {
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerExecHandler(int failureThreshold, long openMillis, MeterRegistry meterRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        String host = scope.route.getTargetHost().getHostName();
+        CircuitBreaker breaker = breakers.computeIfAbsent(host, this::newBreaker);
+
+        if (!breaker.tryAcquire()) {
+            throw new CircuitOpenException(host);
+        }
+
+        ClassicHttpResponse response;
+        try {
+            response = chain.proceed(request, scope);
+        } catch (IOException | HttpException | RuntimeException ex) {
+            breaker.onFailure();
+            throw ex;
+        }
+
+        int status = response.getCode();
+        if (status >= 500 || status == 429) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+        return response;
+    }
+
+    public CircuitBreaker.State state(String host) {
+        CircuitBreaker breaker = breakers.get(host);
+        return breaker != null ? breaker.state() : CircuitBreaker.State.CLOSED;
+    }
+
+    private CircuitBreaker newBreaker(String host) {
+        CircuitBreaker breaker = new CircuitBreaker(failureThreshold, openMillis);
+        Gauge.builder("provider.http.circuit.open", breaker, b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while calls to the host are being short-circuited")
+                .tag("host", host)
+                .register(meterRegistry);
+        return breaker;
+    }
+}
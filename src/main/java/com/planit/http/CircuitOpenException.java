@@ -0,0 +1,13 @@
+package com.planit.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of calling a host whose circuit is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    public CircuitOpenException(String host) {
+        super("Circuit open for " + host + ", not calling it until it recovers");
+    }
+}
@@ -0,0 +1,78 @@
+package com.planit.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.time.Duration;
+
+/**
+ * Builds the one HTTP client every provider integration goes through.
+ *
+ * Connections are pooled and kept alive, so the pages of a crawl reuse a
+ * handful of sockets instead of a TLS handshake each. Every call has connect,
+ * pool-lease and read timeouts. The exec chain is, outermost first:
+ * per-host circuit breaker, retry with jittered backoff, per-attempt latency
+ * metrics, then the transport.
+ */
+public final class ProviderHttpClients {
+
+    public record Settings(
+            Duration connectTimeout,
+            Duration readTimeout,
+            Duration connectionRequestTimeout,
+            int maxConnections,
+            int maxConnectionsPerHost,
+            Duration idleTimeout,
+            int maxRetries,
+            Duration retryBaseDelay,
+            Duration retryMaxDelay,
+            int breakerFailureThreshold,
+            Duration breakerOpenDuration
+    ) {}
+
+    private ProviderHttpClients() {}
+
+    public static CloseableHttpClient create(Settings settings, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.maxConnections())
+                .setMaxConnPerRoute(settings.maxConnectionsPerHost())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(settings.connectTimeout()))
+                        .setSocketTimeout(timeout(settings.readTimeout()))
+                        // re-check sockets that sat idle, the provider may have closed them
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "providers").bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(settings.connectionRequestTimeout()))
+                        .setResponseTimeout(timeout(settings.readTimeout()))
+                        .build())
+                .setRetryStrategy(new ProviderRetryStrategy(
+                        settings.maxRetries(), settings.retryBaseDelay(), settings.retryMaxDelay()))
+                .addExecInterceptorFirst("circuit-breaker", new CircuitBreakerExecHandler(
+                        settings.breakerFailureThreshold(), settings.breakerOpenDuration().toMillis(), meterRegistry))
+                .addExecInterceptorAfter(ChainElement.RETRY.name(), "request-metrics",
+                        new RequestMetricsExecHandler(meterRegistry))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(settings.idleTimeout()))
+                .setUserAgent("PlanIT")
+                .build();
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.of(duration);
+    }
+}
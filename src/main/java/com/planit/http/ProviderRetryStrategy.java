@@ -0,0 +1,111 @@
+package com.planit.http;
+
+import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries idempotent provider calls on 429, transient 5xx responses and
+ * dropped connections.
+ *
+ * The wait before retry n is drawn uniformly from [0, min(maxDelay,
+ * baseDelay * 2^(n-1))] ("full jitter"), so parallel page fetches that fail
+ * together don't retry together. A Retry-After header is honored as the
+ * minimum wait; one asking for longer than maxDelay isn't retried at all,
+ * since waiting that long would stall the whole refresh.
+ */
+public class ProviderRetryStrategy implements HttpRequestRetryStrategy {
+
+    private static final Set<Integer> RETRIABLE_STATUSES = Set.of(429, 500, 502, 503, 504);
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public ProviderRetryStrategy(int maxRetries, Duration baseDelay, Duration maxDelay) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+    }
+
+    @Override
+    public boolean retryRequest(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        // timeouts, DNS and TLS failures won't go away by asking again right now
+        if (exception instanceof InterruptedIOException
+                || exception instanceof UnknownHostException
+                || exception instanceof SSLException
+                || exception instanceof CircuitOpenException) {
+            return false;
+        }
+        return execCount <= maxRetries && isIdempotent(request);
+    }
+
+    @Override
+    public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+        if (execCount > maxRetries || !RETRIABLE_STATUSES.contains(response.getCode())) {
+            return false;
+        }
+        Duration retryAfter = retryAfter(response, Instant.now());
+        return retryAfter == null || retryAfter.toMillis() <= maxDelayMillis;
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        return TimeValue.ofMilliseconds(jitteredBackoff(execCount));
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpResponse response, int execCount, HttpContext context) {
+        long delay = jitteredBackoff(execCount);
+        Duration retryAfter = retryAfter(response, Instant.now());
+        if (retryAfter != null) {
+            delay = Math.max(delay, retryAfter.toMillis());
+        }
+        return TimeValue.ofMilliseconds(delay);
+    }
+
+    long jitteredBackoff(int execCount) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(30, Math.max(0, execCount - 1)));
+        return cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0;
+    }
+
+    /**
+     * Retry-After as either delta-seconds or an HTTP date, or null when absent
+     * or unparseable.
+     */
+    static Duration retryAfter(HttpResponse response, Instant now) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null || header.getValue() == null) return null;
+
+        String value = header.getValue().trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException ignored) {
+            // not delta-seconds, try an HTTP date
+        }
+
+        Instant at = DateUtils.parseStandardDate(value);
+        if (at == null) return null;
+        Duration wait = Duration.between(now, at);
+        return wait.isNegative() ? Duration.ZERO : wait;
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        return Method.isIdempotent(request.getMethod());
+    }
+}
@@ -0,0 +1,50 @@
+package com.planit.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every attempt (retries included) as a latency histogram tagged by
+ * host, method and status, so slow or flaky providers show up per host.
+ */
+public class RequestMetricsExecHandler implements ExecChainHandler {
+
+    static final String METRIC = "provider.http.client.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsExecHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        String host = scope.route.getTargetHost().getHostName();
+        long started = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            ClassicHttpResponse response = chain.proceed(request, scope);
+            status = String.valueOf(response.getCode());
+            return response;
+        } finally {
+            // time to response headers; the body is streamed by the caller afterwards
+            Timer.builder(METRIC)
+                    .description("Time to response headers for calls to event providers")
+                    .tag("host", host)
+                    .tag("method", request.getMethod())
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Collects mapped events for one provider (and region) and hands them to
+ * {@link EventBulkUpserter} whenever the batch fills up.
+ */
+public class EventBatch implements Consumer<Event>, AutoCloseable {
+
+    private final EventBulkUpserter upserter;
+    private final String provider;
+    private final Region region;
+    private final int batchSize;
+    private final List<Event> buffer;
+    private final IngestionProgress progress;
+    private final boolean revive;
+    private final Set<String> seenExternalIds = new HashSet<>();
+
+    private UpsertStats stats = UpsertStats.EMPTY;
+
+    EventBatch(EventBulkUpserter upserter, String provider, Region region, int batchSize, IngestionProgress progress,
+               boolean revive) {
+        this.upserter = upserter;
+        this.provider = provider;
+        this.region = region;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayList<>(batchSize);
+        this.progress = progress;
+        this.revive = revive;
+    }
+
+    @Override
+    public void accept(Event event) {
+        if (event.getExternalId() != null) {
+            seenExternalIds.add(event.getExternalId());
+        }
+        buffer.add(event);
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        if (buffer.isEmpty()) return;
+        UpsertStats flushed = upserter.upsert(provider, region, buffer, revive);
+        stats = stats.plus(flushed);
+        buffer.clear();
+        if (progress != null) {
+            progress.eventsUpserted(flushed.rows());
+        }
+    }
+
+    /**
+     * External ids of every event passed to this batch, used to find events
+     * that disappeared from the provider.
+     */
+    public Set<String> getSeenExternalIds() {
+        return seenExternalIds;
+    }
+
+    public UpsertStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,317 @@
+package com.planit.ingest;
+
+import com.planit.geo.GeoHash;
+import com.planit.model.Event;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Writes provider events in batches instead of one SELECT + one save per event.
+ *
+ * Each batch costs at most two round trips: one query to pre-load the ids and
+ * content hashes that already exist for the batch, and one multi-row
+ * INSERT ... ON CONFLICT for the rows that are new or changed. Rows whose
+ * content hash matches what's stored are skipped entirely.
+ */
+@Component
+public class EventBulkUpserter {
+
+    // written columns, in the order of columnValues()
+    static final String[] COLUMNS = {
+            "ticketmaster_id", "external_id", "provider", "title", "category", "genre",
+            "start_time", "end_time", "url", "venue_name", "latitude", "longitude", "region", "geohash", "dedup_key",
+            "content_hash"
+    };
+
+    // the PostgreSQL wire protocol numbers bind parameters with an unsigned short
+    static final int MAX_BIND_PARAMETERS = 65535;
+
+    // largest batch whose multi-row INSERT stays within MAX_BIND_PARAMETERS
+    static final int MAX_BATCH_SIZE = MAX_BIND_PARAMETERS / COLUMNS.length;
+
+    private record Existing(long id, String contentHash, boolean removed, Long canonicalId, String region) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventDeduplicator deduplicator;
+    private final IngestionMetrics metrics;
+
+    @Value("${ingestion.batch-size:500}")
+    private int batchSize;
+
+    public EventBulkUpserter(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                             EventDeduplicator deduplicator, IngestionMetrics metrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.deduplicator = deduplicator;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    void checkBatchSize() {
+        int clamped = clampBatchSize(batchSize);
+        if (clamped != batchSize) {
+            System.err.println("ingestion.batch-size " + batchSize + " is out of range, using " + clamped
+                    + " (each row binds " + COLUMNS.length + " of at most " + MAX_BIND_PARAMETERS + " parameters)");
+            batchSize = clamped;
+        }
+    }
+
+    static int clampBatchSize(int configured) {
+        return Math.max(1, Math.min(configured, MAX_BATCH_SIZE));
+    }
+
+    /**
+     * Opens a batch that buffers events for one provider and flushes every
+     * {@code ingestion.batch-size} events. Close it to flush the remainder.
+     */
+    public EventBatch openBatch(String provider) {
+        return openBatch(provider, null, null);
+    }
+
+    /**
+     * @param region region being crawled, or null for a non-regional provider
+     */
+    public EventBatch openBatch(String provider, Region region, IngestionProgress progress) {
+        return new EventBatch(this, provider, region, Math.max(1, batchSize), progress, true);
+    }
+
+    /**
+     * Batch for replayed archive pages. Unlike a live crawl, an old page
+     * listing an event doesn't mean it's back, so tombstoned rows stay
+     * tombstoned and aren't touched.
+     */
+    public EventBatch openReplayBatch(String provider, Region region, IngestionProgress progress) {
+        return new EventBatch(this, provider, region, Math.max(1, batchSize), progress, false);
+    }
+
+    /**
+     * Upserts one batch of events for a single provider in one statement.
+     */
+    public UpsertStats upsert(String provider, Region region, List<Event> events) {
+        return upsert(provider, region, events, true);
+    }
+
+    /**
+     * @param revive whether events that were tombstoned are made live again;
+     *               if not, they're skipped
+     */
+    public UpsertStats upsert(String provider, Region region, List<Event> events, boolean revive) {
+        if (events.isEmpty()) return UpsertStats.EMPTY;
+        long started = System.nanoTime();
+        String regionKey = region != null ? region.key() : null;
+
+        // ON CONFLICT can't touch the same row twice in one statement, so keep
+        // only the last copy of each external id
+        Map<String, Event> byExternalId = new LinkedHashMap<>();
+        for (Event event : events) {
+            if (event.getExternalId() != null) {
+                byExternalId.put(event.getExternalId(), event);
+            }
+        }
+        if (byExternalId.isEmpty()) return UpsertStats.EMPTY;
+
+        Map<String, Existing> existing = loadExisting(provider, byExternalId.keySet());
+
+        List<Event> rows = new ArrayList<>(byExternalId.size());
+        Set<String> updatedExternalIds = new HashSet<>();
+        int skipped = 0;
+        for (Event event : byExternalId.values()) {
+            prepare(event, provider, regionKey);
+
+            Existing current = existing.get(event.getExternalId());
+            if (current == null) {
+                rows.add(event);
+            } else if (current.removed() && !revive) {
+                event.setId(current.id());
+                skipped++;
+            } else if (current.removed() || !event.getContentHash().equals(current.contentHash())
+                    || !Objects.equals(regionKey, current.region())) {
+                rows.add(event);
+                updatedExternalIds.add(event.getExternalId());
+            } else {
+                event.setId(current.id());
+                skipped++;
+            }
+        }
+
+        Map<String, Long> ids = new HashMap<>();
+        if (!rows.isEmpty()) {
+            List<Object> args = new ArrayList<>(rows.size() * COLUMNS.length);
+            for (Event event : rows) {
+                args.addAll(Arrays.asList(columnValues(event)));
+            }
+
+            jdbcTemplate.query(upsertSql(rows.size(), revive), rs -> {
+                ids.put(rs.getString("external_id"), rs.getLong("id"));
+            }, args.toArray());
+
+            // without revive, rows tombstoned since loadExisting are neither
+            // updated nor returned; new rows always are
+            int written = rows.size();
+            rows.removeIf(event -> !ids.containsKey(event.getExternalId())
+                    && updatedExternalIds.remove(event.getExternalId()));
+            skipped += written - rows.size();
+        }
+
+        if (!rows.isEmpty()) {
+            List<Long> insertedIds = new ArrayList<>();
+            List<Long> updatedIds = new ArrayList<>();
+            Map<Long, Long> currentCanonical = new HashMap<>();
+            for (Event event : rows) {
+                event.setId(ids.get(event.getExternalId()));
+                (updatedExternalIds.contains(event.getExternalId()) ? updatedIds : insertedIds).add(event.getId());
+
+                Existing current = existing.get(event.getExternalId());
+                if (current != null && current.canonicalId() != null) {
+                    currentCanonical.put(event.getId(), current.canonicalId());
+                }
+            }
+
+            // linking can hide or reveal rows of other providers too
+            Set<Long> touched = new HashSet<>(insertedIds);
+            touched.addAll(updatedIds);
+            for (Long id : deduplicator.link(provider, rows, currentCanonical)) {
+                if (touched.add(id)) updatedIds.add(id);
+            }
+
+            // the statement ran in auto-commit, so readers can already see these rows
+            eventPublisher.publishEvent(new EventsChangedEvent(provider, insertedIds, updatedIds, List.of()));
+        }
+
+        int updated = updatedExternalIds.size();
+        int inserted = rows.size() - updated;
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.println("Upserted " + provider + " batch: " + byExternalId.size() + " rows ("
+                + inserted + " inserted, " + updated + " updated, " + skipped + " unchanged) in " + elapsed + " ms");
+
+        UpsertStats stats = new UpsertStats(1, byExternalId.size(), inserted, updated, skipped, elapsed);
+        metrics.recordUpsert(provider, stats);
+        return stats;
+    }
+
+    /**
+     * Tombstones live events of a provider (in one region, for regional
+     * providers) that start after {@code windowStart} but weren't part of the
+     * latest complete refresh. Other regions' events are left alone.
+     *
+     * @return ids of the rows that were tombstoned
+     */
+    public List<Long> tombstoneMissing(String provider, Region region, Set<String> seenExternalIds, Instant windowStart) {
+        String sql = "UPDATE event SET removed_at = now() "
+                + "WHERE provider = ? AND " + (region != null ? "region = ?" : "region IS NULL")
+                + " AND removed_at IS NULL AND start_time >= ? "
+                + "AND NOT (external_id = ANY (?)) RETURNING id";
+
+        List<Long> removed = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            int i = 1;
+            ps.setString(i++, provider);
+            if (region != null) ps.setString(i++, region.key());
+            ps.setTimestamp(i++, Timestamp.from(windowStart));
+            ps.setArray(i, con.createArrayOf("text", seenExternalIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("id"));
+
+        if (!removed.isEmpty()) {
+            System.out.println("Tombstoned " + removed.size() + " " + provider + (region != null ? "/" + region : "")
+                    + " events no longer listed");
+            // duplicates of a removed canonical event take its place
+            List<Long> promoted = deduplicator.promoteOrphans(removed);
+            eventPublisher.publishEvent(new EventsChangedEvent(provider, List.of(), promoted, removed));
+        }
+        return removed;
+    }
+
+    private Map<String, Existing> loadExisting(String provider, Collection<String> externalIds) {
+        String placeholders = String.join(",", Collections.nCopies(externalIds.size(), "?"));
+        String sql = "SELECT id, external_id, content_hash, removed_at, canonical_id, region FROM event "
+                + "WHERE provider = ? AND external_id IN (" + placeholders + ")";
+
+        List<Object> args = new ArrayList<>(externalIds.size() + 1);
+        args.add(provider);
+        args.addAll(externalIds);
+
+        Map<String, Existing> existing = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            long canonicalId = rs.getLong("canonical_id");
+            Long canonical = rs.wasNull() ? null : canonicalId;
+            existing.put(rs.getString("external_id"), new Existing(
+                    rs.getLong("id"), rs.getString("content_hash"), rs.getTimestamp("removed_at") != null,
+                    canonical, rs.getString("region")));
+        }, args.toArray());
+        return existing;
+    }
+
+    /**
+     * Fills in the derived columns every write path stores.
+     */
+    static void prepare(Event event, String provider, String regionKey) {
+        event.setProvider(provider);
+        event.setRegion(regionKey);
+        event.setContentHash(EventContentHash.of(event));
+        event.setGeohash(event.getLatitude() != null && event.getLongitude() != null
+                ? GeoHash.encode(event.getLatitude(), event.getLongitude(), GeoHash.STORED_PRECISION)
+                : null);
+        event.setDedupKey(EventDeduplicator.dedupKey(event.getVenueName(), event.getStartTime()));
+    }
+
+    /**
+     * Values of {@link #COLUMNS} for a prepared event.
+     */
+    static Object[] columnValues(Event event) {
+        return new Object[] {
+                event.getTicketmasterId(), event.getExternalId(), event.getProvider(), event.getTitle(),
+                event.getCategory(), event.getGenre(), timestamp(event.getStartTime()), timestamp(event.getEndTime()),
+                event.getUrl(), event.getVenueName(), event.getLatitude(), event.getLongitude(), event.getRegion(),
+                event.getGeohash(), event.getDedupKey(), event.getContentHash()
+        };
+    }
+
+    /**
+     * ON CONFLICT clause that overwrites every written column of an existing
+     * row and revives it if it was tombstoned.
+     */
+    static String onConflictUpdate() {
+        return onConflictUpdate(true);
+    }
+
+    /**
+     * @param revive false to leave tombstoned rows alone instead
+     */
+    static String onConflictUpdate(boolean revive) {
+        StringJoiner updates = new StringJoiner(", ");
+        for (String column : COLUMNS) {
+            if (column.equals("provider") || column.equals("external_id")) continue;
+            updates.add(column + " = EXCLUDED." + column);
+        }
+        if (!revive) {
+            return " ON CONFLICT ON CONSTRAINT uk_provider_external_id DO UPDATE SET " + updates
+                    + " WHERE event.removed_at IS NULL";
+        }
+        // a tombstoned event that shows up again is live again
+        updates.add("removed_at = NULL");
+        return " ON CONFLICT ON CONSTRAINT uk_provider_external_id DO UPDATE SET " + updates;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    private static String upsertSql(int rowCount, boolean revive) {
+        String row = "(" + String.join(",", Collections.nCopies(COLUMNS.length, "?")) + ")";
+
+        return "INSERT INTO event (" + String.join(", ", COLUMNS) + ") VALUES "
+                + String.join(",", Collections.nCopies(rowCount, row))
+                + onConflictUpdate(revive) + " RETURNING id, external_id";
+    }
+}
@@ -0,0 +1,54 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hashes the provider-supplied fields of an event so a refresh can tell
+ * whether anything actually changed.
+ */
+public final class EventContentHash {
+
+    private EventContentHash() {}
+
+    public static String of(Event event) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        update(digest, event.getTicketmasterId());
+        update(digest, event.getTitle());
+        update(digest, event.getCategory());
+        update(digest, event.getGenre());
+        update(digest, event.getStartTime());
+        update(digest, event.getEndTime());
+        update(digest, event.getUrl());
+        update(digest, event.getVenueName());
+        update(digest, event.getLatitude());
+        update(digest, event.getLongitude());
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        // length-prefix each field so ("ab", "c") and ("a", "bc") hash differently
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(new byte[] {
+                (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+                (byte) (bytes.length >>> 8), (byte) bytes.length
+        });
+        digest.update(bytes);
+    }
+}
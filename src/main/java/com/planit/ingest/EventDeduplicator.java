@@ -0,0 +1,260 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+import com.planit.search.Tokenizer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Links the same real-world event listed by several providers to one
+ * canonical row.
+ *
+ * Rows are blocked by a dedup key of (normalized venue, start hour), so only
+ * events in the same or an adjacent block are ever compared; within a block
+ * two events from different providers match when they start within an hour
+ * of each other and their titles are similar enough. Of a matching pair the
+ * older row (lower id) stays canonical and the other gets its canonical_id,
+ * which hides it from every read query.
+ */
+@Component
+public class EventDeduplicator {
+
+    static final long BUCKET_SECONDS = Duration.ofHours(1).toSeconds();
+    static final long MAX_START_DIFFERENCE_SECONDS = Duration.ofHours(1).toSeconds();
+    static final double MIN_TITLE_SIMILARITY = 0.8;
+
+    // words providers add or drop around the same billing ("X with Y", "The X")
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "a", "an", "and", "with", "at", "of", "in", "feat", "ft", "presents", "vs", "live");
+
+    public record Candidate(long id, String provider, String title, Instant startTime, String dedupKey) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EventDeduplicator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Blocking key for an event, or null when venue or start time is missing
+     * (such events are never deduplicated).
+     */
+    public static String dedupKey(String venueName, Instant startTime) {
+        if (venueName == null || startTime == null) return null;
+
+        List<String> venue = new ArrayList<>(Tokenizer.tokenize(venueName));
+        venue.remove("the");
+        if (venue.isEmpty()) return null;
+
+        return String.join(" ", venue) + "|" + Math.floorDiv(startTime.getEpochSecond(), BUCKET_SECONDS);
+    }
+
+    /**
+     * Links freshly written rows of one provider against the canonical rows of
+     * the others.
+     *
+     * @param written          rows of the batch, with ids assigned
+     * @param currentCanonical canonical_id each written row had before the write
+     * @return ids whose visibility may have changed
+     */
+    public List<Long> link(String provider, List<Event> written, Map<Long, Long> currentCanonical) {
+        List<Candidate> rows = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (Event event : written) {
+            if (event.getDedupKey() == null) continue;
+            rows.add(new Candidate(event.getId(), provider, event.getTitle(), event.getStartTime(), event.getDedupKey()));
+            keys.addAll(neighborKeys(event.getDedupKey()));
+        }
+
+        List<Candidate> pool = keys.isEmpty() ? List.of() : loadCanonical(provider, keys);
+        return apply(assign(rows, pool), currentCanonical);
+    }
+
+    /**
+     * Recomputes links for every live row; used once after the dedup key is
+     * backfilled onto existing data.
+     */
+    public List<Long> relinkAll() {
+        Map<Long, Long> currentCanonical = new HashMap<>();
+        List<Candidate> rows = jdbcTemplate.query(
+                "SELECT id, provider, title, start_time, dedup_key, canonical_id FROM event "
+                        + "WHERE removed_at IS NULL AND dedup_key IS NOT NULL",
+                (rs, rowNum) -> {
+                    long canonicalId = rs.getLong("canonical_id");
+                    if (!rs.wasNull()) currentCanonical.put(rs.getLong("id"), canonicalId);
+                    return candidate(rs);
+                });
+        return apply(assign(rows, List.of()), currentCanonical);
+    }
+
+    /**
+     * Promotes the duplicates of tombstoned canonical rows: the oldest
+     * duplicate of each becomes canonical and the rest point at it.
+     *
+     * @return ids of the rows that were re-pointed or became visible
+     */
+    public List<Long> promoteOrphans(List<Long> removedIds) {
+        if (removedIds.isEmpty()) return List.of();
+
+        String sql = """
+                WITH orphans AS (
+                    SELECT id, min(id) OVER (PARTITION BY canonical_id) AS promoted
+                    FROM event WHERE canonical_id = ANY (?) AND removed_at IS NULL
+                )
+                UPDATE event e SET canonical_id = NULLIF(o.promoted, e.id)
+                FROM orphans o WHERE e.id = o.id
+                RETURNING e.id
+                """;
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", removedIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("id"));
+    }
+
+    /**
+     * Single greedy pass in id order. Each row looks for its best match among
+     * the canonical rows already placed in its own and the adjacent blocks;
+     * without one it becomes canonical itself. Pool rows are already
+     * canonical and only link to a written row, never to each other.
+     *
+     * @return canonical id (null for canonical) of every written row, plus
+     *         pool rows that now link to a written row
+     */
+    static Map<Long, Long> assign(Collection<Candidate> written, Collection<Candidate> pool) {
+        Set<Long> writtenIds = new HashSet<>();
+        List<Candidate> all = new ArrayList<>(written.size() + pool.size());
+        for (Candidate c : written) {
+            if (writtenIds.add(c.id())) all.add(c);
+        }
+        for (Candidate c : pool) {
+            if (!writtenIds.contains(c.id())) all.add(c);
+        }
+        all.sort(Comparator.comparingLong(Candidate::id));
+
+        Map<String, List<Candidate>> blocks = new HashMap<>();
+        Map<Long, Set<String>> titleTokens = new HashMap<>();
+        Map<Long, Long> result = new HashMap<>();
+
+        for (Candidate row : all) {
+            boolean isWritten = writtenIds.contains(row.id());
+            Set<String> tokens = titleTokens.computeIfAbsent(row.id(), id -> titleTokens(row.title()));
+
+            Candidate best = null;
+            double bestScore = 0;
+            for (String key : neighborKeys(row.dedupKey())) {
+                for (Candidate other : blocks.getOrDefault(key, List.of())) {
+                    if (other.provider().equals(row.provider())) continue;
+                    if (!isWritten && !writtenIds.contains(other.id())) continue;
+                    if (Math.abs(other.startTime().getEpochSecond() - row.startTime().getEpochSecond())
+                            > MAX_START_DIFFERENCE_SECONDS) continue;
+
+                    double score = similarity(tokens, titleTokens.get(other.id()));
+                    if (score >= MIN_TITLE_SIMILARITY && (best == null || score > bestScore
+                            || (score == bestScore && startGap(row, other) < startGap(row, best)))) {
+                        best = other;
+                        bestScore = score;
+                    }
+                }
+            }
+
+            if (best != null) {
+                result.put(row.id(), best.id());
+            } else {
+                if (isWritten) result.put(row.id(), null);
+                blocks.computeIfAbsent(row.dedupKey(), k -> new ArrayList<>()).add(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Share of the shorter title's words that also appear in the other, so a
+     * support act appended by one provider doesn't prevent a match.
+     */
+    static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) return 0;
+
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int shared = 0;
+        for (String token : smaller) {
+            if (larger.contains(token)) shared++;
+        }
+        return (double) shared / smaller.size();
+    }
+
+    static Set<String> titleTokens(String title) {
+        Set<String> tokens = new HashSet<>(Tokenizer.tokenize(title));
+        tokens.removeAll(STOP_WORDS);
+        return tokens;
+    }
+
+    private static List<String> neighborKeys(String dedupKey) {
+        int separator = dedupKey.lastIndexOf('|');
+        String venue = dedupKey.substring(0, separator + 1);
+        long bucket = Long.parseLong(dedupKey.substring(separator + 1));
+        return List.of(venue + (bucket - 1), dedupKey, venue + (bucket + 1));
+    }
+
+    private static long startGap(Candidate a, Candidate b) {
+        return Math.abs(a.startTime().getEpochSecond() - b.startTime().getEpochSecond());
+    }
+
+    private List<Candidate> loadCanonical(String provider, Set<String> keys) {
+        String placeholders = String.join(",", Collections.nCopies(keys.size(), "?"));
+        String sql = "SELECT id, provider, title, start_time, dedup_key FROM event "
+                + "WHERE dedup_key IN (" + placeholders + ") AND provider <> ? "
+                + "AND canonical_id IS NULL AND removed_at IS NULL";
+
+        List<Object> args = new ArrayList<>(keys);
+        args.add(provider);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> candidate(rs), args.toArray());
+    }
+
+    private static Candidate candidate(ResultSet rs) throws SQLException {
+        Timestamp start = rs.getTimestamp("start_time");
+        return new Candidate(rs.getLong("id"), rs.getString("provider"), rs.getString("title"),
+                start.toInstant(), rs.getString("dedup_key"));
+    }
+
+    /**
+     * Writes the links that differ from what's stored. A row that becomes a
+     * duplicate takes its own duplicates along to the new canonical.
+     */
+    private List<Long> apply(Map<Long, Long> assignments, Map<Long, Long> currentCanonical) {
+        List<Object[]> linked = new ArrayList<>();
+        List<Object[]> unlinked = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+
+        assignments.forEach((id, canonical) -> {
+            if (Objects.equals(canonical, currentCanonical.get(id))) return;
+            changed.add(id);
+            if (canonical != null) {
+                linked.add(new Object[] {canonical, id, id});
+            } else {
+                unlinked.add(new Object[] {id});
+            }
+        });
+
+        if (!linked.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE event SET canonical_id = ? WHERE id = ? OR canonical_id = ?", linked);
+        }
+        if (!unlinked.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE event SET canonical_id = NULL WHERE id = ?", unlinked);
+        }
+        if (!changed.isEmpty()) {
+            System.out.println("Relinked " + changed.size() + " events across providers ("
+                    + linked.size() + " marked duplicate, " + unlinked.size() + " canonical again)");
+        }
+        return changed;
+    }
+}
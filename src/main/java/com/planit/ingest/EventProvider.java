@@ -0,0 +1,57 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * An external source of events. Implementations fetch from their API and push
+ * normalized {@link Event}s to the sink one at a time; persisting them is the
+ * {@link IngestionOrchestrator}'s job.
+ *
+ * Any Spring bean implementing this is picked up automatically, so adding a
+ * provider doesn't touch the controllers.
+ */
+public interface EventProvider {
+
+    /**
+     * Provider key stored in {@code event.provider}, e.g. "TICKETMASTER".
+     */
+    String name();
+
+    /**
+     * Fetches the provider's current events. The sink is only ever called from
+     * the thread that invoked this method; pages and non-fatal errors are
+     * reported to {@code progress}.
+     *
+     * @param region the metro to fetch for regional providers, called once per
+     *               configured region; null for providers that aren't regional
+     */
+    void fetchEvents(Region region, Consumer<Event> sink, IngestionProgress progress) throws Exception;
+
+    /**
+     * Maps one raw response body, as stored by {@link ResponseArchive}, the
+     * same way {@link #fetchEvents} maps a live one. Used to replay archived
+     * crawls offline.
+     *
+     * @return events mapped
+     */
+    int parsePage(InputStream body, Consumer<Event> sink) throws IOException;
+
+    /**
+     * Regional providers are crawled once per {@link IngestionRegions} entry,
+     * and their events are tombstoned per region.
+     */
+    default boolean isRegional() {
+        return false;
+    }
+
+    /**
+     * Providers without credentials configured report false and are skipped.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+}
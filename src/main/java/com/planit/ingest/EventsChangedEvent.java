@@ -0,0 +1,83 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Published after ingestion commits rows to the event table. Read-side caches
+ * and indexes listen for it to invalidate or patch themselves.
+ *
+ * Listeners that need the inserted and updated rows share one load of them
+ * through {@link #changedEvents}, which is kept with the event and dropped
+ * along with it.
+ */
+public final class EventsChangedEvent {
+
+    private final String provider;
+    private final List<Long> insertedIds;
+    private final List<Long> updatedIds;
+    private final List<Long> removedIds;
+
+    private List<Event> changedEvents;
+
+    public EventsChangedEvent(String provider, List<Long> insertedIds, List<Long> updatedIds, List<Long> removedIds) {
+        this.provider = provider;
+        this.insertedIds = insertedIds;
+        this.updatedIds = updatedIds;
+        this.removedIds = removedIds;
+    }
+
+    public static EventsChangedEvent removed(String provider, List<Long> removedIds) {
+        return new EventsChangedEvent(provider, List.of(), List.of(), List.copyOf(removedIds));
+    }
+
+    public String provider() {
+        return provider;
+    }
+
+    public List<Long> insertedIds() {
+        return insertedIds;
+    }
+
+    public List<Long> updatedIds() {
+        return updatedIds;
+    }
+
+    public List<Long> removedIds() {
+        return removedIds;
+    }
+
+    /**
+     * Inserted then updated ids.
+     */
+    public List<Long> changedIds() {
+        List<Long> changed = new ArrayList<>(insertedIds.size() + updatedIds.size());
+        changed.addAll(insertedIds);
+        changed.addAll(updatedIds);
+        return changed;
+    }
+
+    /**
+     * The rows behind {@link #changedIds()} that still load, fetched by the
+     * first listener that asks; later listeners get the same list.
+     */
+    public synchronized List<Event> changedEvents(Function<List<Long>, List<Event>> loader) {
+        if (changedEvents == null) {
+            changedEvents = List.copyOf(loader.apply(changedIds()));
+        }
+        return changedEvents;
+    }
+
+    public boolean isEmpty() {
+        return insertedIds.isEmpty() && updatedIds.isEmpty() && removedIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "EventsChangedEvent[provider=" + provider + ", inserted=" + insertedIds.size()
+                + ", updated=" + updatedIds.size() + ", removed=" + removedIds.size() + "]";
+    }
+}
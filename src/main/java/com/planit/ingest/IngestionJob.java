@@ -0,0 +1,128 @@
+package com.planit.ingest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A queued or running refresh of one or more providers, in some or all
+ * regions, or a replay of their archived responses.
+ */
+public class IngestionJob {
+
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    public enum Kind { REFRESH, REPLAY }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Kind kind;
+    private final List<String> providers;
+    // empty means every configured region
+    private final List<String> regions;
+    // archive window of a replay, either end may be open
+    private final Instant replayFrom;
+    private final Instant replayTo;
+    private final IngestionProgress progress = new IngestionProgress();
+    private final Instant submittedAt = Instant.now();
+
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile List<ProviderRunResult> results = List.of();
+
+    IngestionJob(List<String> providers, List<String> regions) {
+        this(Kind.REFRESH, providers, regions, null, null);
+    }
+
+    IngestionJob(Kind kind, List<String> providers, List<String> regions, Instant replayFrom, Instant replayTo) {
+        this.kind = kind;
+        this.providers = List.copyOf(providers);
+        this.regions = List.copyOf(regions);
+        this.replayFrom = replayFrom;
+        this.replayTo = replayTo;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Instant getReplayFrom() {
+        return replayFrom;
+    }
+
+    public Instant getReplayTo() {
+        return replayTo;
+    }
+
+    public List<String> getProviders() {
+        return providers;
+    }
+
+    public List<String> getRegions() {
+        return regions;
+    }
+
+    public IngestionProgress getProgress() {
+        return progress;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    void finished(List<ProviderRunResult> results) {
+        this.results = List.copyOf(results);
+        boolean failed = results.stream().anyMatch(r ->
+                r.status() == ProviderRunResult.Status.FAILED || r.status() == ProviderRunResult.Status.TIMED_OUT);
+        finishedAt = Instant.now();
+        state = failed ? State.FAILED : State.SUCCEEDED;
+    }
+
+    void failed(Throwable ex) {
+        progress.error(IngestionProgress.describe(ex));
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    public Status status() {
+        Instant start = startedAt;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long elapsed = start != null ? Duration.between(start, end).toMillis() : 0;
+
+        return new Status(id, kind, providers, regions, state, progress.getPagesFetched(), progress.getEventsUpserted(),
+                progress.getErrors(), elapsed, submittedAt, startedAt, finishedAt, results);
+    }
+
+    /**
+     * JSON view returned by the jobs endpoint.
+     */
+    public record Status(
+            String id,
+            Kind kind,
+            List<String> providers,
+            List<String> regions,
+            State state,
+            int pagesFetched,
+            int eventsUpserted,
+            List<String> errors,
+            long elapsedMillis,
+            Instant submittedAt,
+            Instant startedAt,
+            Instant finishedAt,
+            List<ProviderRunResult> results
+    ) {}
+}
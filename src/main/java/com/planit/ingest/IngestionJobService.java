@@ -0,0 +1,213 @@
+package com.planit.ingest;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs provider refreshes off the request thread.
+ *
+ * The executor is bounded: at most {@code ingestion.jobs.threads} jobs run at
+ * once and {@code ingestion.jobs.queue-capacity} wait, beyond which submissions
+ * are rejected. Providers and regions that a queued or running job already
+ * covers aren't crawled again: a trigger only starts a job for what's left,
+ * and returns the existing job when nothing is.
+ * Archive replays share the executor but never call the providers, so they
+ * aren't deduplicated against refreshes.
+ */
+@Service
+public class IngestionJobService implements DisposableBean {
+
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    private final IngestionOrchestrator orchestrator;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> finishedJobIds = new ArrayDeque<>();
+
+    // provider -> jobs currently queued or running for it, each for some or all regions
+    private final Map<String, List<IngestionJob>> activeByProvider = new HashMap<>();
+
+    public IngestionJobService(IngestionOrchestrator orchestrator,
+                               @Value("${ingestion.jobs.threads:2}") int threads,
+                               @Value("${ingestion.jobs.queue-capacity:10}") int queueCapacity) {
+        this.orchestrator = orchestrator;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @param job          the job started for the request, or the existing one
+     *                     covering it when {@code deduplicated}
+     * @param deduplicated true if nothing new was started
+     * @param jobs         every job doing part of the requested work
+     */
+    public record Submission(IngestionJob job, boolean deduplicated, List<IngestionJob> jobs) {}
+
+    public Set<String> providerNames() {
+        return orchestrator.providerNames();
+    }
+
+    public boolean hasRegion(String key) {
+        return orchestrator.hasRegion(key);
+    }
+
+    public Submission submitAll() {
+        return submit(orchestrator.providerNames(), List.of());
+    }
+
+    public Submission submit(String provider) {
+        return submit(List.of(provider), List.of());
+    }
+
+    /**
+     * @param regions region keys to refresh; empty means every region
+     * @throws IllegalArgumentException if a provider or region isn't registered
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public synchronized Submission submit(Collection<String> providers, Collection<String> regions) {
+        for (String provider : providers) {
+            if (!orchestrator.hasProvider(provider)) {
+                throw new IllegalArgumentException("Unknown provider: " + provider);
+            }
+        }
+        List<String> regionKeys = new ArrayList<>();
+        for (String region : regions) {
+            if (!orchestrator.hasRegion(region)) {
+                throw new IllegalArgumentException("Unknown region: " + region);
+            }
+            regionKeys.add(region.toLowerCase(Locale.ROOT));
+        }
+
+        // regions still to crawl -> providers needing exactly those, so each
+        // group can be one job; an empty key means every region
+        Map<List<String>, List<String>> uncovered = new LinkedHashMap<>();
+        Set<IngestionJob> covering = new LinkedHashSet<>();
+        for (String provider : providers) {
+            List<String> missing = missingRegions(provider, regionKeys, covering);
+            if (missing != null) {
+                uncovered.computeIfAbsent(missing, r -> new ArrayList<>()).add(provider);
+            }
+        }
+
+        if (uncovered.isEmpty() && !covering.isEmpty()) {
+            return new Submission(covering.iterator().next(), true, List.copyOf(covering));
+        }
+        if (uncovered.isEmpty()) {
+            uncovered.put(regionKeys, List.of());
+        }
+
+        List<IngestionJob> started = new ArrayList<>();
+        for (Map.Entry<List<String>, List<String>> group : uncovered.entrySet()) {
+            IngestionJob job = new IngestionJob(group.getValue(), group.getKey());
+            executor.execute(() -> run(job));
+
+            jobs.put(job.getId(), job);
+            for (String provider : group.getValue()) {
+                activeByProvider.computeIfAbsent(provider, p -> new ArrayList<>()).add(job);
+            }
+            started.add(job);
+        }
+        List<IngestionJob> all = new ArrayList<>(started);
+        all.addAll(covering);
+        return new Submission(started.get(0), false, all);
+    }
+
+    /**
+     * The requested regions no active job is crawling for {@code provider},
+     * or null if there are none. Active jobs doing part of the work are added
+     * to {@code covering}.
+     */
+    private List<String> missingRegions(String provider, List<String> regionKeys, Set<IngestionJob> covering) {
+        Set<String> covered = new HashSet<>();
+        for (IngestionJob active : activeByProvider.getOrDefault(provider, List.of())) {
+            if (active.getRegions().isEmpty()) {
+                covering.add(active);
+                return null;
+            }
+            covered.addAll(active.getRegions());
+        }
+
+        List<String> wanted = regionKeys;
+        if (wanted.isEmpty()) {
+            // jobs for explicit regions skip providers that aren't regional
+            if (covered.isEmpty() || !orchestrator.isRegional(provider)) {
+                return List.of();
+            }
+            wanted = orchestrator.regions().stream().map(Region::key).toList();
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String region : wanted) {
+            if (!covered.contains(region)) {
+                missing.add(region);
+            }
+        }
+        for (IngestionJob active : activeByProvider.getOrDefault(provider, List.of())) {
+            if (!Collections.disjoint(active.getRegions(), wanted)) {
+                covering.add(active);
+            }
+        }
+        return missing.isEmpty() ? null : missing;
+    }
+
+    /**
+     * Queues a replay of archived responses fetched in [from, to).
+     *
+     * @param regions region keys to replay; empty means every archived region
+     * @throws IllegalArgumentException if a provider isn't registered
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public synchronized Submission submitReplay(Collection<String> providers, Collection<String> regions,
+                                   Instant from, Instant to) {
+        for (String provider : providers) {
+            if (!orchestrator.hasProvider(provider)) {
+                throw new IllegalArgumentException("Unknown provider: " + provider);
+            }
+        }
+        List<String> regionKeys = regions.stream().map(r -> r.toLowerCase(Locale.ROOT)).toList();
+
+        IngestionJob job = new IngestionJob(IngestionJob.Kind.REPLAY, new ArrayList<>(providers), regionKeys, from, to);
+        executor.execute(() -> run(job));
+        jobs.put(job.getId(), job);
+        return new Submission(job, false, List.of(job));
+    }
+
+    public Optional<IngestionJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(IngestionJob job) {
+        job.started();
+        try {
+            job.finished(job.getKind() == IngestionJob.Kind.REPLAY
+                    ? orchestrator.replay(job.getProviders(), job.getRegions(), job.getReplayFrom(),
+                            job.getReplayTo(), job.getProgress())
+                    : orchestrator.refresh(job.getProviders(), job.getRegions(), job.getProgress()));
+        } catch (Throwable ex) {
+            job.failed(ex);
+        } finally {
+            release(job);
+        }
+    }
+
+    private synchronized void release(IngestionJob job) {
+        activeByProvider.values().forEach(active -> active.remove(job));
+        activeByProvider.values().removeIf(List::isEmpty);
+
+        finishedJobIds.addLast(job.getId());
+        while (finishedJobIds.size() > MAX_FINISHED_JOBS) {
+            jobs.remove(finishedJobIds.removeFirst());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,82 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Micrometer meters for the ingestion path, all tagged by provider.
+ *
+ * ingestion.provider.duration   timer per provider (and region) run, tagged with its status
+ * ingestion.events              counter, result = parsed|inserted|updated|unchanged|removed;
+ *                               parsed counts every event a provider handed over, repeats
+ *                               included, the rest count rows after de-duplication
+ * ingestion.parse.failures      counter of provider records that couldn't be mapped
+ * ingestion.upsert.batch        timer per bulk upsert statement
+ */
+@Component
+public class IngestionMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public IngestionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordRun(ProviderRunResult result) {
+        if (result.status() == ProviderRunResult.Status.SKIPPED) return;
+
+        Timer.builder("ingestion.provider.duration")
+                .description("Fetch and upsert time of one provider refresh")
+                .tag("provider", result.provider())
+                .tag("region", result.region() != null ? result.region() : "none")
+                .tag("status", result.status().name())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(result.durationMillis(), TimeUnit.MILLISECONDS);
+
+        events(result.provider(), "inserted").increment(result.inserted());
+        events(result.provider(), "updated").increment(result.updated());
+        events(result.provider(), "unchanged").increment(result.unchanged());
+        events(result.provider(), "removed").increment(result.removed());
+    }
+
+    /**
+     * Wraps a provider's sink so each event it hands over is counted as
+     * parsed before it reaches the batch.
+     */
+    public Consumer<Event> countParsed(String provider, Consumer<Event> sink) {
+        Counter parsed = events(provider, "parsed");
+        return event -> {
+            parsed.increment();
+            sink.accept(event);
+        };
+    }
+
+    public void recordUpsert(String provider, UpsertStats stats) {
+        Timer.builder("ingestion.upsert.batch")
+                .description("Time of one bulk upsert, including the existing-row lookup")
+                .tag("provider", provider)
+                .register(meterRegistry)
+                .record(stats.elapsedMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public Counter parseFailures(String provider) {
+        return Counter.builder("ingestion.parse.failures")
+                .description("Provider records or fields that couldn't be parsed")
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+
+    private Counter events(String provider, String result) {
+        return Counter.builder("ingestion.events")
+                .tag("provider", provider)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
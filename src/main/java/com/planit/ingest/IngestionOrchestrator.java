@@ -0,0 +1,335 @@
+package com.planit.ingest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs registered {@link EventProvider}s in parallel and upserts what they
+ * return.
+ *
+ * Every provider x region pair (or just the provider, if it isn't regional)
+ * is its own task on a virtual thread, so dozens of metros crawl side by
+ * side without a thread pool to size. At most
+ * {@code ingestion.max-concurrent-crawls} tasks crawl at once across all
+ * jobs; each provider's own rate limiter keeps its API quota. Every task
+ * gets its own timeout, and one failing or hanging crawl doesn't affect the
+ * others.
+ *
+ * On PostgreSQL a crawl's events are spooled and land in one transaction
+ * once the crawl is done (see {@link StagedEventLoader}); elsewhere they're
+ * upserted in batches as they arrive.
+ */
+@Service
+public class IngestionOrchestrator {
+
+    private record Task(EventProvider provider, Region region) {
+        String label() {
+            return region != null ? provider.name() + "/" + region : provider.name();
+        }
+    }
+
+    private final Map<String, EventProvider> providers = new LinkedHashMap<>();
+    private final IngestionRegions regions;
+    private final EventBulkUpserter bulkUpserter;
+    private final StagedEventLoader stagedLoader;
+    private final ResponseArchive archive;
+    private final IngestionMetrics metrics;
+    private final Semaphore crawlPermits;
+
+    // per provider x region crawl, counted from when it gets a permit
+    @Value("${ingestion.provider-timeout-seconds:300}")
+    private long providerTimeoutSeconds;
+
+    // the whole fan-out, including time spent waiting for a permit
+    @Value("${ingestion.refresh-timeout-seconds:3600}")
+    private long refreshTimeoutSeconds;
+
+    public IngestionOrchestrator(List<EventProvider> providers, IngestionRegions regions,
+                                 EventBulkUpserter bulkUpserter, StagedEventLoader stagedLoader,
+                                 ResponseArchive archive, IngestionMetrics metrics,
+                                 @Value("${ingestion.max-concurrent-crawls:8}") int maxConcurrentCrawls) {
+        for (EventProvider provider : providers) {
+            this.providers.put(provider.name(), provider);
+        }
+        this.regions = regions;
+        this.bulkUpserter = bulkUpserter;
+        this.stagedLoader = stagedLoader;
+        this.archive = archive;
+        this.metrics = metrics;
+        this.crawlPermits = new Semaphore(Math.max(1, maxConcurrentCrawls), true);
+    }
+
+    public Set<String> providerNames() {
+        return Collections.unmodifiableSet(providers.keySet());
+    }
+
+    public boolean hasProvider(String name) {
+        return providers.containsKey(name);
+    }
+
+    public boolean isRegional(String name) {
+        EventProvider provider = providers.get(name);
+        return provider != null && provider.isRegional();
+    }
+
+    public List<Region> regions() {
+        return regions.all();
+    }
+
+    public boolean hasRegion(String key) {
+        return regions.find(key).isPresent();
+    }
+
+    /**
+     * Refreshes every enabled provider in every region concurrently.
+     */
+    public List<ProviderRunResult> refreshAll() {
+        return refresh(providers.keySet(), List.of(), new IngestionProgress());
+    }
+
+    public List<ProviderRunResult> refresh(String providerName) {
+        return refresh(List.of(providerName), List.of(), new IngestionProgress());
+    }
+
+    /**
+     * @param regionKeys regions to crawl; empty means all of them. With
+     *                   explicit regions, providers that aren't regional are
+     *                   skipped since the refresh isn't about them.
+     */
+    public List<ProviderRunResult> refresh(Collection<String> providerNames, Collection<String> regionKeys,
+                                           IngestionProgress progress) {
+        List<Region> selected = new ArrayList<>();
+        for (String key : regionKeys) {
+            selected.add(regions.find(key).orElseThrow(() -> new IllegalArgumentException("Unknown region: " + key)));
+        }
+
+        List<ProviderRunResult> results = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        for (String name : providerNames) {
+            EventProvider provider = providers.get(name);
+            if (provider == null) {
+                throw new IllegalArgumentException("Unknown provider: " + name);
+            }
+            if (!provider.isEnabled() || (!provider.isRegional() && !selected.isEmpty())) {
+                results.add(ProviderRunResult.skipped(name));
+            } else if (provider.isRegional()) {
+                for (Region region : selected.isEmpty() ? regions.all() : selected) {
+                    tasks.add(new Task(provider, region));
+                }
+            } else {
+                tasks.add(new Task(provider, null));
+            }
+        }
+
+        long started = System.currentTimeMillis();
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Map<Task, Future<ProviderRunResult>> running = new LinkedHashMap<>();
+            for (Task task : tasks) {
+                running.put(task, pool.submit(() -> runThrottled(task, pool, progress)));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(refreshTimeoutSeconds);
+            for (Map.Entry<Task, Future<ProviderRunResult>> entry : running.entrySet()) {
+                ProviderRunResult result = await(entry.getKey(), entry.getValue(), deadline, started);
+                metrics.recordRun(result);
+                results.add(result);
+            }
+            System.out.println("Refreshed " + tasks.size() + " crawls in " + (System.currentTimeMillis() - started) + " ms");
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Re-maps archived responses (see {@link ResponseArchive}) fetched in
+     * [from, to) and upserts the result, without calling any provider. Pages
+     * are replayed oldest first, so the latest copy of an event wins. Nothing
+     * is tombstoned: the archive doesn't know which crawls were complete. Nor
+     * is anything revived: events tombstoned since stay gone.
+     *
+     * @param regionKeys archived regions to replay, configured or not; empty
+     *                   means all of them
+     */
+    public List<ProviderRunResult> replay(Collection<String> providerNames, Collection<String> regionKeys,
+                                          Instant from, Instant to, IngestionProgress progress) throws IOException {
+        List<ProviderRunResult> results = new ArrayList<>();
+        for (String name : providerNames) {
+            EventProvider provider = providers.get(name);
+            if (provider == null) {
+                throw new IllegalArgumentException("Unknown provider: " + name);
+            }
+
+            // region key (null when not regional) -> its pages, oldest first
+            Map<String, List<ResponseArchive.Entry>> byRegion = new LinkedHashMap<>();
+            for (ResponseArchive.Entry entry : archive.entries(name, regionKeys, from, to)) {
+                byRegion.computeIfAbsent(entry.region(), r -> new ArrayList<>()).add(entry);
+            }
+            if (byRegion.isEmpty()) {
+                results.add(ProviderRunResult.skipped(name));
+            }
+            for (Map.Entry<String, List<ResponseArchive.Entry>> pages : byRegion.entrySet()) {
+                results.add(replay(provider, pages.getKey(), pages.getValue(), progress));
+            }
+        }
+        return results;
+    }
+
+    private ProviderRunResult replay(EventProvider provider, String regionKey, List<ResponseArchive.Entry> pages,
+                                     IngestionProgress jobProgress) {
+        long started = System.currentTimeMillis();
+        IngestionProgress progress = new IngestionProgress(jobProgress);
+        // regions dropped from the config since are replayed all the same
+        Region region = regionKey == null ? null
+                : regions.find(regionKey).orElseGet(() -> new Region(regionKey, null, null, null));
+        String label = regionKey != null ? provider.name() + "/" + regionKey : provider.name();
+        List<String> errors = new ArrayList<>();
+        ProviderRunResult.Status status = ProviderRunResult.Status.OK;
+
+        EventBatch batch = bulkUpserter.openReplayBatch(provider.name(), region, progress);
+        try (batch) {
+            archive.read(pages, (entry, body) -> {
+                try {
+                    provider.parsePage(body, batch);
+                    progress.pageFetched();
+                } catch (IOException ex) {
+                    // one unreadable page shouldn't stop a month of replay
+                    progress.error(label + " page fetched at " + entry.fetchedAt() + ": " + IngestionProgress.describe(ex));
+                }
+            });
+        } catch (Exception ex) {
+            status = ProviderRunResult.Status.FAILED;
+            String error = IngestionProgress.describe(ex);
+            errors.add(error);
+            progress.error(label + ": " + error);
+            System.err.println(label + " replay failed: " + error);
+        }
+
+        UpsertStats stats = batch.getStats();
+        ProviderRunResult result = new ProviderRunResult(provider.name(), regionKey, status, stats.rows(),
+                stats.inserted(), stats.updated(), stats.skipped(), 0, System.currentTimeMillis() - started, errors);
+        System.out.println("Replayed " + pages.size() + " archived pages: " + result);
+        return result;
+    }
+
+    private ProviderRunResult runThrottled(Task task, ExecutorService pool, IngestionProgress progress)
+            throws InterruptedException {
+        crawlPermits.acquire();
+        try {
+            long started = System.currentTimeMillis();
+            Future<ProviderRunResult> crawl = pool.submit(() -> run(task, progress));
+            return await(task, crawl, System.nanoTime() + TimeUnit.SECONDS.toNanos(providerTimeoutSeconds), started);
+        } finally {
+            crawlPermits.release();
+        }
+    }
+
+    private ProviderRunResult run(Task task, IngestionProgress jobProgress) {
+        if (stagedLoader.isEnabled()) {
+            return runStaged(task, jobProgress);
+        }
+
+        EventProvider provider = task.provider();
+        long started = System.currentTimeMillis();
+        Instant windowStart = Instant.now();
+        IngestionProgress progress = new IngestionProgress(jobProgress);
+        List<String> errors = new ArrayList<>();
+        ProviderRunResult.Status status = ProviderRunResult.Status.OK;
+        int removed = 0;
+
+        EventBatch batch = bulkUpserter.openBatch(provider.name(), task.region(), progress);
+        try {
+            provider.fetchEvents(task.region(), metrics.countParsed(provider.name(), batch), progress);
+            batch.flush();
+
+            // only a complete listing tells us what disappeared; a partial crawl
+            // would tombstone everything on the pages we missed
+            if (progress.isComplete() && !batch.getSeenExternalIds().isEmpty()) {
+                removed = bulkUpserter.tombstoneMissing(provider.name(), task.region(),
+                        batch.getSeenExternalIds(), windowStart).size();
+            }
+        } catch (Exception ex) {
+            status = ProviderRunResult.Status.FAILED;
+            String error = IngestionProgress.describe(ex);
+            errors.add(error);
+            progress.error(task.label() + ": " + error);
+            System.err.println(task.label() + " refresh failed: " + error);
+        }
+
+        UpsertStats stats = batch.getStats();
+        ProviderRunResult result = new ProviderRunResult(provider.name(), regionKey(task), status, stats.rows(),
+                stats.inserted(), stats.updated(), stats.skipped(), removed,
+                System.currentTimeMillis() - started, errors);
+        System.out.println("Refreshed " + result);
+        return result;
+    }
+
+    /**
+     * Crawls into a spool and loads it in one transaction. A crawl that
+     * throws leaves the table untouched; one that finished with page errors,
+     * or stopped short of the end of the listing, is still loaded but removes
+     * nothing.
+     */
+    private ProviderRunResult runStaged(Task task, IngestionProgress jobProgress) {
+        EventProvider provider = task.provider();
+        long started = System.currentTimeMillis();
+        Instant windowStart = Instant.now();
+        IngestionProgress progress = new IngestionProgress(jobProgress);
+        List<String> errors = new ArrayList<>();
+        ProviderRunResult.Status status = ProviderRunResult.Status.OK;
+        UpsertStats stats = UpsertStats.EMPTY;
+        int removed = 0;
+
+        try (StagedEventLoader.StagedLoad load = stagedLoader.open(provider.name(), task.region())) {
+            provider.fetchEvents(task.region(), metrics.countParsed(provider.name(), load), progress);
+            if (load.size() > 0) {
+                StagedEventLoader.Result loaded = load.commit(progress.isComplete() ? windowStart : null);
+                stats = loaded.stats();
+                removed = loaded.removed();
+                progress.eventsUpserted(stats.rows());
+            }
+        } catch (Exception ex) {
+            status = ProviderRunResult.Status.FAILED;
+            String error = IngestionProgress.describe(ex);
+            errors.add(error);
+            progress.error(task.label() + ": " + error);
+            System.err.println(task.label() + " refresh failed: " + error);
+        }
+
+        ProviderRunResult result = new ProviderRunResult(provider.name(), regionKey(task), status, stats.rows(),
+                stats.inserted(), stats.updated(), stats.skipped(), removed,
+                System.currentTimeMillis() - started, errors);
+        System.out.println("Refreshed " + result);
+        return result;
+    }
+
+    private static ProviderRunResult await(Task task, Future<ProviderRunResult> future,
+                                           long deadline, long started) {
+        String name = task.provider().name();
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            return ProviderRunResult.failed(name, regionKey(task), ProviderRunResult.Status.TIMED_OUT,
+                    System.currentTimeMillis() - started, "Timed out");
+        } catch (ExecutionException ex) {
+            return ProviderRunResult.failed(name, regionKey(task), ProviderRunResult.Status.FAILED,
+                    System.currentTimeMillis() - started, IngestionProgress.describe(ex.getCause()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return ProviderRunResult.failed(name, regionKey(task), ProviderRunResult.Status.FAILED,
+                    System.currentTimeMillis() - started, "Interrupted");
+        }
+    }
+
+    private static String regionKey(Task task) {
+        return task.region() != null ? task.region().key() : null;
+    }
+}
@@ -0,0 +1,119 @@
+package com.planit.ingest;
+
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Live counters for a refresh. Shared by every provider in the run, so all
+ * updates are thread-safe.
+ */
+public class IngestionProgress {
+
+    private static final int MAX_ERRORS = 50;
+
+    // provider credentials travel as query parameters, and client exceptions quote the URL
+    private static final Pattern CREDENTIAL = Pattern.compile("(?i)\\b(apikey|api_key|client_id|client_secret|token)=[^&\\s\"]*");
+
+    private final IngestionProgress parent;
+
+    private final AtomicInteger pagesFetched = new AtomicInteger();
+    private final AtomicInteger eventsUpserted = new AtomicInteger();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger eventsSkipped = new AtomicInteger();
+    private volatile boolean truncated;
+
+    public IngestionProgress() {
+        this(null);
+    }
+
+    /**
+     * Progress for one part of a run; every update is also applied to the parent.
+     */
+    public IngestionProgress(IngestionProgress parent) {
+        this.parent = parent;
+    }
+
+    public void pageFetched() {
+        pagesFetched.incrementAndGet();
+        if (parent != null) parent.pageFetched();
+    }
+
+    public void eventsUpserted(int count) {
+        eventsUpserted.addAndGet(count);
+        if (parent != null) parent.eventsUpserted(count);
+    }
+
+    public void error(String message) {
+        // keep the first few; a broken provider can fail on every page
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+        if (parent != null) parent.error(message);
+    }
+
+    /**
+     * How a failure is reported in job status and run results, which the
+     * admin API hands out: an HTTP error is its class and status, anything
+     * else keeps its message with credentials masked.
+     */
+    public static String describe(Throwable ex) {
+        if (ex instanceof RestClientResponseException http) {
+            return ex.getClass().getSimpleName() + ": HTTP " + http.getStatusCode().value();
+        }
+        String message = ex.getMessage();
+        if (message == null) {
+            return ex.getClass().getSimpleName();
+        }
+        return ex.getClass().getSimpleName() + ": " + CREDENTIAL.matcher(message).replaceAll("$1=REMOVED");
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * Records that the provider stopped before the end of its listing, e.g.
+     * at a deep-paging cap. Not an error, but the crawl didn't see
+     * everything. Stays with this part of the run.
+     */
+    public void truncated(String reason) {
+        truncated = true;
+        System.out.println("Listing truncated: " + reason);
+    }
+
+    /**
+     * Records a listed event that couldn't be mapped. It never reaches the
+     * sink, but it isn't gone either, so the crawl can't be used to tombstone.
+     * Stays with this part of the run.
+     */
+    public void eventSkipped() {
+        eventsSkipped.incrementAndGet();
+    }
+
+    /**
+     * True if every page of the listing was fetched and every event on it
+     * mapped, which is what it takes to treat events missing from it as gone.
+     */
+    public boolean isComplete() {
+        return !truncated && !hasErrors() && eventsSkipped.get() == 0;
+    }
+
+    public int getPagesFetched() {
+        return pagesFetched.get();
+    }
+
+    public int getEventsUpserted() {
+        return eventsUpserted.get();
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.planit.ingest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Metros crawled by regional providers, from
+ * {@code ingestion.regions=Austin:TX:US,Dallas:TX:US,...}. Each provider x
+ * region pair is refreshed as its own task.
+ */
+@Component
+public class IngestionRegions {
+
+    private final Map<String, Region> regions = new LinkedHashMap<>();
+
+    public IngestionRegions(@Value("${ingestion.regions:Austin:TX:US}") List<String> specs) {
+        for (String spec : specs) {
+            if (spec.isBlank()) continue;
+            Region region = Region.parse(spec);
+            if (regions.putIfAbsent(region.key(), region) != null) {
+                throw new IllegalStateException("Duplicate region in ingestion.regions: " + region.key());
+            }
+        }
+        if (regions.isEmpty()) {
+            throw new IllegalStateException("ingestion.regions must list at least one region");
+        }
+    }
+
+    public List<Region> all() {
+        return List.copyOf(regions.values());
+    }
+
+    public Optional<Region> find(String key) {
+        return Optional.ofNullable(key != null ? regions.get(key.toLowerCase(Locale.ROOT)) : null);
+    }
+}
@@ -0,0 +1,61 @@
+package com.planit.ingest;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Schedules a refresh per provider from {@code ingestion.schedule.<provider>}
+ * cron expressions, e.g. {@code ingestion.schedule.ticketmaster=0 0 * * * *}.
+ * Providers without a schedule (or with "-") are only refreshed on demand.
+ *
+ * Scheduled runs go through {@link IngestionJobService}, so they share its
+ * executor and never overlap a refresh that's already running.
+ */
+@Configuration
+public class IngestionScheduler implements SchedulingConfigurer {
+
+    private final IngestionOrchestrator orchestrator;
+    private final IngestionJobService jobService;
+    private final Environment environment;
+
+    public IngestionScheduler(IngestionOrchestrator orchestrator, IngestionJobService jobService,
+                              Environment environment) {
+        this.orchestrator = orchestrator;
+        this.jobService = jobService;
+        this.environment = environment;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        for (String provider : orchestrator.providerNames()) {
+            String key = "ingestion.schedule." + provider.toLowerCase(Locale.ROOT);
+            String cron = environment.getProperty(key, ScheduledTaskRegistrar.CRON_DISABLED);
+            if (ScheduledTaskRegistrar.CRON_DISABLED.equals(cron)) continue;
+
+            if (!CronExpression.isValidExpression(cron)) {
+                throw new IllegalStateException("Invalid cron for " + key + ": " + cron);
+            }
+
+            registrar.addCronTask(() -> refresh(provider), cron);
+            System.out.println("Scheduled " + provider + " refresh: " + cron);
+        }
+    }
+
+    private void refresh(String provider) {
+        try {
+            IngestionJobService.Submission submission = jobService.submit(provider);
+            if (submission.deduplicated()) {
+                System.out.println("Skipping scheduled " + provider + " refresh, job "
+                        + submission.job().getId() + " is still running");
+            }
+        } catch (RejectedExecutionException ex) {
+            System.err.println("Scheduled " + provider + " refresh rejected: ingestion queue is full");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.planit.ingest;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Fetches every page of a paged provider API.
+ *
+ * The first page is fetched up front to learn the page count; the rest are
+ * fetched concurrently on virtual threads, at most {@code concurrency} at a
+ * time and throttled by a shared {@link RateLimiter}. Pages are handed to the sink on the calling thread as
+ * they complete, so the sink never has to be thread-safe.
+ */
+public class PagedCrawler {
+
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        Page<T> fetch(int pageNumber) throws Exception;
+    }
+
+    public record Page<T>(int number, int totalPages, List<T> items) {}
+
+    public record CrawlStats(int totalPages, int pagesFetched, int pagesFailed) {}
+
+    private final int concurrency;
+    private final RateLimiter rateLimiter;
+
+    public PagedCrawler(int concurrency, RateLimiter rateLimiter) {
+        this.concurrency = Math.max(1, concurrency);
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * @param maxPages provider cap on how deep we're allowed to page
+     */
+    public <T> CrawlStats crawl(PageFetcher<T> fetcher, int maxPages, Consumer<Page<T>> sink) throws Exception {
+        Page<T> first = fetchThrottled(fetcher, 0);
+        sink.accept(first);
+
+        int lastPage = Math.min(first.totalPages(), maxPages);
+        if (lastPage <= 1) {
+            return new CrawlStats(first.totalPages(), 1, 0);
+        }
+
+        int fetched = 1;
+        int failed = 0;
+
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        Semaphore inFlight = new Semaphore(concurrency);
+        try {
+            CompletionService<Page<T>> completion = new ExecutorCompletionService<>(pool);
+            for (int page = 1; page < lastPage; page++) {
+                int pageNumber = page;
+                completion.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        return fetchThrottled(fetcher, pageNumber);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            for (int i = 1; i < lastPage; i++) {
+                try {
+                    sink.accept(completion.take().get());
+                    fetched++;
+                } catch (ExecutionException ex) {
+                    failed++;
+                    System.err.println("Page fetch failed: " + ex.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return new CrawlStats(first.totalPages(), fetched, failed);
+    }
+
+    private <T> Page<T> fetchThrottled(PageFetcher<T> fetcher, int pageNumber) throws Exception {
+        if (rateLimiter != null) {
+            rateLimiter.acquire();
+        }
+        return fetcher.fetch(pageNumber);
+    }
+}
@@ -0,0 +1,32 @@
+package com.planit.ingest;
+
+import java.util.List;
+
+/**
+ * Outcome of one provider's fetch + upsert, for one region when the provider
+ * is regional ({@code region} is null otherwise).
+ */
+public record ProviderRunResult(
+        String provider,
+        String region,
+        Status status,
+        int events,
+        int inserted,
+        int updated,
+        int unchanged,
+        int removed,
+        long durationMillis,
+        List<String> errors
+) {
+
+    public enum Status { OK, FAILED, TIMED_OUT, SKIPPED }
+
+    public static ProviderRunResult failed(String provider, String region, Status status, long durationMillis,
+                                           String error) {
+        return new ProviderRunResult(provider, region, status, 0, 0, 0, 0, 0, durationMillis, List.of(error));
+    }
+
+    public static ProviderRunResult skipped(String provider) {
+        return new ProviderRunResult(provider, null, Status.SKIPPED, 0, 0, 0, 0, 0, 0, List.of());
+    }
+}
@@ -0,0 +1,33 @@
+package com.planit.ingest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces calls evenly so a provider never sees more than the configured
+ * number of requests per second, no matter how many threads share it.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeAt = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeAt);
+            nextFreeAt = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
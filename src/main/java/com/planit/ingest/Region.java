@@ -0,0 +1,37 @@
+package com.planit.ingest;
+
+import java.util.Locale;
+
+/**
+ * A metro area crawled separately for each regional provider.
+ *
+ * @param key         stable id stored in {@code event.region} and used by the
+ *                    admin endpoints, e.g. "san-antonio-tx"; the
+ *                    state is part of it, since cities like Portland OR/ME
+ *                    share a name
+ * @param stateCode   two-letter state/province code, or null
+ * @param countryCode ISO country code, or null
+ */
+public record Region(String key, String city, String stateCode, String countryCode) {
+
+    /**
+     * Parses "City[:STATE[:COUNTRY]]", e.g. "San Antonio:TX:US".
+     */
+    public static Region parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        String city = parts[0].trim();
+        if (city.isEmpty()) {
+            throw new IllegalArgumentException("Region without a city: '" + spec + "'");
+        }
+        String state = parts.length > 1 && !parts[1].isBlank() ? parts[1].trim().toUpperCase(Locale.ROOT) : null;
+        String country = parts.length > 2 && !parts[2].isBlank() ? parts[2].trim().toUpperCase(Locale.ROOT) : null;
+        String name = state != null ? city + " " + state : city;
+        String key = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+        return new Region(key, city, state, country);
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,259 @@
+package com.planit.ingest;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local archive of raw provider responses, so a mapping fix can be re-run
+ * over past crawls without calling the provider APIs again.
+ *
+ * Every page body is gzipped on its own and appended to the current segment
+ * file ({@code 000001.seg}, ...); a new segment starts once the current one
+ * passes {@code ingestion.archive.segment-size}, and every boot starts a
+ * fresh one. Each record gets one line in the segment's text index
+ * ({@code 000001.idx}): fetch time, provider, region, offset and length. The
+ * index line is written after the record, so a crash at worst leaves
+ * unindexed bytes behind.
+ *
+ * Reads map the segments into memory and inflate records straight from the
+ * mapping, so replaying a month of pages is bound by disk and the upserts,
+ * not by copying.
+ */
+@Component
+public class ResponseArchive implements DisposableBean {
+
+    /**
+     * One archived page.
+     *
+     * @param region region key, or null for providers that aren't regional
+     */
+    public record Entry(Instant fetchedAt, String provider, String region, int segment, long offset, int length) {}
+
+    @FunctionalInterface
+    public interface BodyHandler<T> {
+        T handle(InputStream body) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface PageHandler {
+        void handle(Entry entry, InputStream body) throws IOException;
+    }
+
+    private static final String NO_REGION = "-";
+
+    private final Path dir;
+    private final boolean enabled;
+    private final long segmentBytes;
+
+    // not synchronized: appends do file I/O, which would pin the crawlers' virtual threads
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private int segment;
+    private FileChannel data;
+    private Writer index;
+
+    public ResponseArchive(@Value("${ingestion.archive.dir:archive}") Path dir,
+                           @Value("${ingestion.archive.enabled:false}") boolean enabled,
+                           @Value("${ingestion.archive.segment-size:256MB}") DataSize segmentSize) {
+        this.dir = dir;
+        this.enabled = enabled;
+        // segments are mapped whole, and a mapping can't exceed 2 GB
+        this.segmentBytes = Math.min(segmentSize.toBytes(), DataSize.ofGigabytes(1).toBytes());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Archives a response body, then hands it to {@code handler}. The body
+     * is stored before it's parsed, so pages that break the mapping are kept
+     * too. With the archive disabled the body is passed through untouched.
+     *
+     * @param region region being crawled, or null
+     */
+    public <T> T record(String provider, Region region, InputStream body, BodyHandler<T> handler) throws IOException {
+        if (!enabled) return handler.handle(body);
+
+        byte[] bytes = body.readAllBytes();
+        append(provider, region != null ? region.key() : null, Instant.now(), bytes);
+        return handler.handle(new ByteArrayInputStream(bytes));
+    }
+
+    void append(String provider, String regionKey, Instant fetchedAt, byte[] body) throws IOException {
+        // compress outside the lock; concurrent crawls only serialize on the write
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        ByteBuffer record = ByteBuffer.wrap(compressed.toByteArray());
+
+        writeLock.lock();
+        try {
+            if (data == null || data.size() >= segmentBytes) {
+                roll();
+            }
+            long offset = data.size();
+            while (record.hasRemaining()) {
+                data.write(record, offset + record.position());
+            }
+            index.write(fetchedAt.toEpochMilli() + "\t" + provider + "\t" + (regionKey != null ? regionKey : NO_REGION)
+                    + "\t" + offset + "\t" + record.limit() + "\n");
+            index.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        closeSegment();
+        Files.createDirectories(dir);
+        segment = Math.max(segment, lastSegment()) + 1;
+        data = FileChannel.open(segmentFile(segment), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        index = Files.newBufferedWriter(indexFile(segment), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        System.out.println("Archiving provider responses to " + segmentFile(segment));
+    }
+
+    /**
+     * Archived pages of a provider fetched in [from, to), oldest first.
+     *
+     * @param regionKeys regions to include; empty means all of them
+     * @param from       inclusive, or null for no lower bound
+     * @param to         exclusive, or null for no upper bound
+     */
+    public List<Entry> entries(String provider, Collection<String> regionKeys, Instant from, Instant to)
+            throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (int seg : segments()) {
+            for (String line : Files.readAllLines(indexFile(seg), StandardCharsets.UTF_8)) {
+                String[] f = line.split("\t");
+                // a torn last line from a crash
+                if (f.length < 5) continue;
+
+                Instant fetchedAt = Instant.ofEpochMilli(Long.parseLong(f[0]));
+                String region = NO_REGION.equals(f[2]) ? null : f[2];
+                if (!f[1].equals(provider)
+                        || (!regionKeys.isEmpty() && !regionKeys.contains(region))
+                        || (from != null && fetchedAt.isBefore(from))
+                        || (to != null && !fetchedAt.isBefore(to))) {
+                    continue;
+                }
+                entries.add(new Entry(fetchedAt, f[1], region, seg, Long.parseLong(f[3]), Integer.parseInt(f[4])));
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::fetchedAt));
+        return entries;
+    }
+
+    /**
+     * Inflates each entry's body from a read-only mapping of its segment and
+     * hands it to {@code handler}, in the order given.
+     */
+    public void read(List<Entry> entries, PageHandler handler) throws IOException {
+        Map<Integer, MappedByteBuffer> mapped = new HashMap<>();
+        for (Entry entry : entries) {
+            MappedByteBuffer segmentBuffer = mapped.get(entry.segment());
+            if (segmentBuffer == null || segmentBuffer.capacity() < entry.offset() + entry.length()) {
+                // (re)mapped when the segment has grown past the last mapping
+                segmentBuffer = map(entry.segment());
+                mapped.put(entry.segment(), segmentBuffer);
+            }
+            ByteBuffer record = segmentBuffer.slice((int) entry.offset(), entry.length());
+            try (InputStream body = new GZIPInputStream(new ByteBufferInputStream(record), 64 * 1024)) {
+                handler.handle(entry, body);
+            }
+        }
+    }
+
+    private MappedByteBuffer map(int seg) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(seg), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private List<Integer> segments() throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.matches("\\d+\\.idx"))
+                    .map(name -> Integer.parseInt(name.substring(0, name.indexOf('.'))))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private int lastSegment() throws IOException {
+        List<Integer> segments = segments();
+        return segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+    }
+
+    private Path segmentFile(int seg) {
+        return dir.resolve(String.format("%06d.seg", seg));
+    }
+
+    private Path indexFile(int seg) {
+        return dir.resolve(String.format("%06d.idx", seg));
+    }
+
+    private void closeSegment() throws IOException {
+        if (index != null) index.close();
+        if (data != null) data.close();
+        index = null;
+        data = null;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        writeLock.lock();
+        try {
+            closeSegment();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
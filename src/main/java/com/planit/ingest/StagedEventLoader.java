@@ -0,0 +1,281 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Full-refresh path for a provider crawl: nothing touches the event table
+ * until the crawl is done, then the whole result lands in one transaction.
+ *
+ * While the provider is crawled, prepared rows are spooled as CSV to a temp
+ * file, so neither memory nor a database transaction is held for the
+ * length of the crawl. At commit the file is streamed into a temporary
+ * staging table with COPY, and a few set-based statements reconcile it
+ * into event: one INSERT ... SELECT ... ON CONFLICT that skips rows whose
+ * content hash is unchanged, one UPDATE that tombstones rows missing from
+ * the staging table, then cross-provider linking. Readers see the table
+ * either entirely before or entirely after the refresh.
+ *
+ * COPY is PostgreSQL-only; on other databases {@link #isEnabled()} is false
+ * and the orchestrator falls back to {@link EventBulkUpserter} batches.
+ */
+@Component
+public class StagedEventLoader {
+
+    public record Result(UpsertStats stats, int removed) {}
+
+    private static final String STAGING_TABLE = "event_staging";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventDeduplicator deduplicator;
+    private final IngestionMetrics metrics;
+
+    @Value("${ingestion.staged-load.enabled:true}")
+    private boolean enabled;
+
+    private volatile Boolean postgres;
+
+    public StagedEventLoader(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher, EventDeduplicator deduplicator,
+                             IngestionMetrics metrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.deduplicator = deduplicator;
+        this.metrics = metrics;
+    }
+
+    public boolean isEnabled() {
+        if (!enabled) return false;
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                    con.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return postgres;
+    }
+
+    /**
+     * Starts spooling one provider (and region) crawl. Close the returned
+     * load to delete the spool file, whether or not it was committed.
+     */
+    public StagedLoad open(String provider, Region region) throws IOException {
+        return new StagedLoad(provider, region);
+    }
+
+    /**
+     * Writes one field in COPY's csv format. Everything but NULL is quoted,
+     * which keeps an empty string apart from NULL (an unquoted empty field).
+     */
+    static void writeCsv(Writer writer, Object value) throws IOException {
+        if (value == null) return;
+
+        String text = value instanceof Timestamp ts ? ts.toInstant().toString() : value.toString();
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    public final class StagedLoad implements Consumer<Event>, AutoCloseable {
+
+        private final String provider;
+        private final Region region;
+        private final Path spool;
+        private final Writer writer;
+        private int rows;
+
+        private StagedLoad(String provider, Region region) throws IOException {
+            this.provider = provider;
+            this.region = region;
+            this.spool = Files.createTempFile("event-staging-", ".csv");
+            this.writer = Files.newBufferedWriter(spool, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void accept(Event event) {
+            // same rule as the batched path: rows without an external id can't be upserted
+            if (event.getExternalId() == null) return;
+
+            EventBulkUpserter.prepare(event, provider, region != null ? region.key() : null);
+            try {
+                // seq first: the last copy of a repeated external id wins, like in a batch
+                writer.write(Integer.toString(rows++));
+                for (Object value : EventBulkUpserter.columnValues(event)) {
+                    writer.write(',');
+                    writeCsv(writer, value);
+                }
+                writer.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        public int size() {
+            return rows;
+        }
+
+        /**
+         * Loads the spooled rows and reconciles them into event in one
+         * transaction, then publishes what changed.
+         *
+         * @param tombstoneFrom tombstone live rows of this provider/region
+         *                      starting at or after this instant that weren't
+         *                      in the crawl; null for an incomplete crawl,
+         *                      which must not remove anything
+         */
+        public Result commit(Instant tombstoneFrom) throws IOException {
+            writer.close();
+            long started = System.nanoTime();
+
+            List<Long> insertedIds = new ArrayList<>();
+            List<Long> updatedIds = new ArrayList<>();
+            List<Long> removedIds = new ArrayList<>();
+            // staged rows, then how many of them were rewritten (before linking adds other rows)
+            int[] counts = new int[2];
+            transactionTemplate.executeWithoutResult(status -> {
+                counts[0] = stage();
+                counts[1] = reconcile(insertedIds, updatedIds);
+                if (tombstoneFrom != null && rows > 0) {
+                    removedIds.addAll(tombstoneMissing(tombstoneFrom));
+                    // duplicates of a removed canonical event take its place
+                    Set<Long> touched = new HashSet<>(updatedIds);
+                    for (Long id : deduplicator.promoteOrphans(removedIds)) {
+                        if (touched.add(id)) updatedIds.add(id);
+                    }
+                }
+            });
+
+            // published after commit, so listeners reload the new state
+            EventsChangedEvent changed = new EventsChangedEvent(provider, insertedIds, updatedIds, removedIds);
+            if (!changed.isEmpty()) {
+                eventPublisher.publishEvent(changed);
+            }
+
+            long elapsed = (System.nanoTime() - started) / 1_000_000;
+            int staged = counts[0];
+            int updated = counts[1] - insertedIds.size();
+            UpsertStats stats = new UpsertStats(1, staged, insertedIds.size(), updated,
+                    staged - counts[1], elapsed);
+            metrics.recordUpsert(provider, stats);
+
+            System.out.println("Staged load " + label() + ": " + staged + " rows (" + stats.inserted()
+                    + " inserted, " + stats.updated() + " updated, " + stats.skipped() + " unchanged, "
+                    + removedIds.size() + " removed) in " + elapsed + " ms");
+            return new Result(stats, removedIds.size());
+        }
+
+        /**
+         * Copies the spool into a fresh staging table and drops all but the
+         * last copy of each external id.
+         *
+         * @return distinct rows staged
+         */
+        private int stage() {
+            jdbcTemplate.execute("CREATE TEMP TABLE " + STAGING_TABLE + " ON COMMIT DROP AS SELECT 0 AS seq, "
+                    + String.join(", ", EventBulkUpserter.COLUMNS) + " FROM event WITH NO DATA");
+
+            String copy = "COPY " + STAGING_TABLE + " (seq, " + String.join(", ", EventBulkUpserter.COLUMNS)
+                    + ") FROM STDIN WITH (FORMAT csv)";
+            long copied = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+                try (Reader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+                    return con.unwrap(PGConnection.class).getCopyAPI().copyIn(copy, reader);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+
+            int duplicates = jdbcTemplate.update("DELETE FROM " + STAGING_TABLE + " a USING " + STAGING_TABLE
+                    + " b WHERE a.external_id = b.external_id AND a.seq < b.seq");
+            // the temp table has no statistics otherwise
+            jdbcTemplate.execute("ANALYZE " + STAGING_TABLE);
+            return (int) copied - duplicates;
+        }
+
+        /**
+         * Inserts new rows and overwrites changed ones; rows whose content
+         * hash and region match what's stored aren't touched at all.
+         *
+         * @return rows inserted or updated from the staging table
+         */
+        private int reconcile(List<Long> insertedIds, List<Long> updatedIds) {
+            String columns = String.join(", ", EventBulkUpserter.COLUMNS);
+            String sql = "INSERT INTO event (" + columns + ") SELECT " + columns + " FROM " + STAGING_TABLE
+                    + EventBulkUpserter.onConflictUpdate()
+                    + " WHERE event.content_hash IS DISTINCT FROM EXCLUDED.content_hash"
+                    + " OR event.region IS DISTINCT FROM EXCLUDED.region"
+                    + " OR event.removed_at IS NOT NULL"
+                    // xmax is 0 only for a freshly inserted row version
+                    + " RETURNING id, title, start_time, dedup_key, canonical_id, (xmax = 0) AS inserted";
+
+            List<Event> written = new ArrayList<>();
+            Map<Long, Long> currentCanonical = new HashMap<>();
+            jdbcTemplate.query(sql, rs -> {
+                Event event = new Event();
+                event.setId(rs.getLong("id"));
+                event.setTitle(rs.getString("title"));
+                Timestamp start = rs.getTimestamp("start_time");
+                event.setStartTime(start != null ? start.toInstant() : null);
+                event.setDedupKey(rs.getString("dedup_key"));
+                written.add(event);
+
+                long canonicalId = rs.getLong("canonical_id");
+                if (!rs.wasNull()) currentCanonical.put(event.getId(), canonicalId);
+                (rs.getBoolean("inserted") ? insertedIds : updatedIds).add(event.getId());
+            });
+
+            // linking can hide or reveal rows of other providers too; a full
+            // refresh writes too many rows for List.contains
+            Set<Long> touched = new HashSet<>(insertedIds);
+            touched.addAll(updatedIds);
+            for (Long id : deduplicator.link(provider, written, currentCanonical)) {
+                if (touched.add(id)) updatedIds.add(id);
+            }
+            return written.size();
+        }
+
+        private List<Long> tombstoneMissing(Instant windowStart) {
+            String sql = "UPDATE event e SET removed_at = now() "
+                    + "WHERE e.provider = ? AND " + (region != null ? "e.region = ?" : "e.region IS NULL")
+                    + " AND e.removed_at IS NULL AND e.start_time >= ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM " + STAGING_TABLE + " s WHERE s.external_id = e.external_id) "
+                    + "RETURNING e.id";
+
+            return jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                int i = 1;
+                ps.setString(i++, provider);
+                if (region != null) ps.setString(i++, region.key());
+                ps.setTimestamp(i, Timestamp.from(windowStart));
+                return ps;
+            }, (rs, rowNum) -> rs.getLong("id"));
+        }
+
+        private String label() {
+            return region != null ? provider + "/" + region : provider;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            Files.deleteIfExists(spool);
+        }
+    }
+}
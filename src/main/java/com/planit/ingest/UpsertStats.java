@@ -0,0 +1,21 @@
+package com.planit.ingest;
+
+/**
+ * Row counts and timing for one or more upsert batches. {@code skipped} rows
+ * were already stored with the same content hash and weren't written.
+ */
+public record UpsertStats(int batches, int rows, int inserted, int updated, int skipped, long elapsedMillis) {
+
+    public static final UpsertStats EMPTY = new UpsertStats(0, 0, 0, 0, 0, 0);
+
+    public UpsertStats plus(UpsertStats other) {
+        return new UpsertStats(
+                batches + other.batches,
+                rows + other.rows,
+                inserted + other.inserted,
+                updated + other.updated,
+                skipped + other.skipped,
+                elapsedMillis + other.elapsedMillis
+        );
+    }
+}
@@ -1,18 +1,33 @@
 package com.planit.model;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.Instant;
 
 @Entity
 @Table(
         name = "event",
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_provider_external_id", columnNames = {"provider", "external_id"})
+        },
+        indexes = {
+                @Index(name = "idx_event_start_time", columnList = "start_time"),
+                @Index(name = "idx_event_category_start_time", columnList = "category, start_time"),
+                @Index(name = "idx_event_genre_start_time", columnList = "genre, start_time"),
+                @Index(name = "idx_event_dedup_key", columnList = "dedup_key"),
+                @Index(name = "idx_event_canonical_id", columnList = "canonical_id")
         }
 )
+// tombstoned rows stay in the table for change detection, and cross-provider
+// duplicates stay linked to their canonical row, but neither is ever served
+@SQLRestriction("removed_at is null and canonical_id is null")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,10 +50,46 @@ public class Event {
     private String title;
     private String category;
     private String genre;
-    private String startTime; // ISO string: 2026-02-20T01:30:00Z
-    private String endTime;
+
+    // timestamptz; serialized as an ISO string (2026-02-20T01:30:00Z) like before
+    private Instant startTime;
+    private Instant endTime;
+
     private String url;
     private String venueName;
-    private String latitude;
-    private String longitude;
-}
\ No newline at end of file
+
+    // the UI has always received coordinates as strings
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Double latitude;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Double longitude;
+
+    // metro the event was crawled for (see ingestion.regions); null for non-regional providers
+    @Column(length = 64)
+    private String region;
+
+    // base32 geohash of the coordinates, for prefix lookups of nearby events
+    @JsonIgnore
+    @Column(length = 12)
+    private String geohash;
+
+    // SHA-256 of the normalized fields; ingestion skips rows whose hash hasn't changed
+    @JsonIgnore
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // (normalized venue, start hour) block used to find the same event from other providers
+    @JsonIgnore
+    @Column(name = "dedup_key", length = 300)
+    private String dedupKey;
+
+    // the row this one duplicates; null for canonical events
+    @JsonIgnore
+    @Column(name = "canonical_id")
+    private Long canonicalId;
+
+    // set when the event drops out of its provider's window
+    @JsonIgnore
+    @Column(name = "removed_at")
+    private Instant removedAt;
+}
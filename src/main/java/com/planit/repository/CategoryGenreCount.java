@@ -0,0 +1,6 @@
+package com.planit.repository;
+
+/**
+ * One row of the category/genre aggregate behind the facets endpoint.
+ */
+public record CategoryGenreCount(String category, String genre, long count) {}
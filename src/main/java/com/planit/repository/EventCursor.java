@@ -0,0 +1,34 @@
+package com.planit.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (startTime, id) ordering. Clients get it as an
+ * opaque string and send it back to fetch the next page.
+ */
+public record EventCursor(Instant startTime, long id) {
+
+    public String encode() {
+        String raw = startTime.getEpochSecond() + "." + startTime.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor wasn't produced by {@link #encode()}
+     */
+    public static EventCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int dot = raw.indexOf('.');
+            int colon = raw.indexOf(':');
+            Instant startTime = Instant.ofEpochSecond(
+                    Long.parseLong(raw.substring(0, dot)),
+                    Long.parseLong(raw.substring(dot + 1, colon)));
+            return new EventCursor(startTime, Long.parseLong(raw.substring(colon + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.planit.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalized filter for event queries. Blank values and the UI's "All"
+ * category are dropped and lists are sorted, so equivalent requests produce
+ * equal filters.
+ *
+ * @param from inclusive lower bound on startTime, or null
+ * @param to   exclusive upper bound on startTime, or null
+ */
+public record EventFilter(List<String> categories, List<String> genres, Instant from, Instant to) {
+
+    public static EventFilter of(List<String> categories, List<String> genres, Instant from, Instant to) {
+        List<String> cats = normalize(categories, true);
+        List<String> gens = normalize(genres, false);
+        return new EventFilter(cats, gens, from, to);
+    }
+
+    public boolean hasCategories() {
+        return categories != null;
+    }
+
+    public boolean hasGenres() {
+        return genres != null;
+    }
+
+    public boolean hasWindow() {
+        return from != null || to != null;
+    }
+
+    private static List<String> normalize(List<String> values, boolean dropAll) {
+        if (values == null) return null;
+        List<String> result = values.stream()
+                .filter(s -> s != null && !s.trim().isEmpty())
+                .filter(s -> !dropAll || !s.equalsIgnoreCase("all"))
+                .map(String::trim)
+                .distinct()
+                .sorted()
+                .toList();
+        return result.isEmpty() ? null : result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "categories=%s genres=%s from=%s to=%s", categories, genres, from, to);
+    }
+}
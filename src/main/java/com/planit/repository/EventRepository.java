@@ -2,16 +2,26 @@ package com.planit.repository;
 
 import com.planit.model.Event;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
-    List<Event> findByCategoryIn(List<String> categories);
-    List<Event> findByGenreIn(List<String> genres);
-    List<Event> findByCategoryInAndGenreIn(List<String> categories, List<String> genres);
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
     Optional<Event> findByProviderAndExternalId(String provider, String externalId);
 
+    @Query("select new com.planit.repository.CategoryGenreCount(e.category, e.genre, count(e)) "
+            + "from Event e group by e.category, e.genre")
+    List<CategoryGenreCount> countByCategoryAndGenre();
+
+    @Query("select new com.planit.repository.CategoryGenreCount(e.category, e.genre, count(e)) "
+            + "from Event e where e.startTime >= :from and e.startTime < :to "
+            + "group by e.category, e.genre")
+    List<CategoryGenreCount> countByCategoryAndGenreBetween(@Param("from") Instant from, @Param("to") Instant to);
+
     // keep temporarily during migration
     Optional<Event> findByTicketmasterId(String ticketmasterId);
 }
@@ -0,0 +1,62 @@
+package com.planit.repository;
+
+import com.planit.model.Event;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Criteria for the read queries behind GET /api/events. Every predicate here
+ * lines up with one of the (start_time), (category, start_time) or
+ * (genre, start_time) indexes.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {}
+
+    public static Specification<Event> matching(EventFilter filter, EventCursor after) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.hasCategories()) {
+                predicates.add(root.get("category").in(filter.categories()));
+            }
+            if (filter.hasGenres()) {
+                predicates.add(root.get("genre").in(filter.genres()));
+            }
+            if (filter.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("startTime"), filter.from()));
+            }
+            if (filter.to() != null) {
+                predicates.add(cb.lessThan(root.get("startTime"), filter.to()));
+            }
+            if (after != null) {
+                // (startTime, id) > (cursor.startTime, cursor.id)
+                predicates.add(cb.or(
+                        cb.greaterThan(root.get("startTime"), after.startTime()),
+                        cb.and(
+                                cb.equal(root.get("startTime"), after.startTime()),
+                                cb.greaterThan(root.get("id"), after.id()))));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Events whose geohash falls in any of the given cells, via prefix match
+     * on the geohash index.
+     */
+    public static Specification<Event> inGeohashCells(Collection<String> cells) {
+        return (root, query, cb) -> cb.or(cells.stream()
+                .map(cell -> cb.like(root.get("geohash"), cell + "%"))
+                .toArray(Predicate[]::new));
+    }
+
+    public static Specification<Event> hasStartTime() {
+        return (root, query, cb) -> cb.isNotNull(root.get("startTime"));
+    }
+}
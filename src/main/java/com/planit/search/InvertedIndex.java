@@ -0,0 +1,151 @@
+package com.planit.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory inverted index with prefix matching and weighted ranking.
+ *
+ * Each document is tokenized per field; a term's weight in a document is the
+ * sum of the weights of the fields it appears in. Every query token must
+ * match some term in a document, either exactly or as a prefix (so "tay sw"
+ * finds "Taylor Swift" while it's being typed). A token contributes its best
+ * matching term's weight times that term's inverse document frequency, with
+ * prefix matches discounted by how much of the term they cover.
+ *
+ * @param <T> payload stored with each document
+ */
+public class InvertedIndex<T> {
+
+    public record Field<T>(Function<T, String> text, double weight) {}
+
+    public record Hit<T>(long id, T value, double score) {}
+
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private record Document<T>(T value, Set<String> terms) {}
+
+    private final List<Field<T>> fields;
+    private final NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+    private final Map<Long, Document<T>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InvertedIndex(List<Field<T>> fields) {
+        this.fields = List.copyOf(fields);
+    }
+
+    public void put(long id, T value) {
+        Map<String, Double> weights = new HashMap<>();
+        for (Field<T> field : fields) {
+            for (String term : new HashSet<>(Tokenizer.tokenize(field.text().apply(value)))) {
+                weights.merge(term, field.weight(), Double::sum);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            documents.put(id, new Document<>(value, weights.keySet()));
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents matching every token of the query, best first (ties by id).
+     */
+    public List<Hit<T>> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (tokens.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Double>> perToken = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Map<Long, Double> scores = scoreToken(token);
+                if (scores.isEmpty()) return List.of();
+                perToken.add(scores);
+            }
+            // intersect starting from the most selective token
+            perToken.sort(Comparator.comparingInt(Map::size));
+
+            List<Hit<T>> hits = new ArrayList<>();
+            for (Map.Entry<Long, Double> candidate : perToken.get(0).entrySet()) {
+                double score = candidate.getValue();
+                for (int i = 1; i < perToken.size() && score > 0; i++) {
+                    Double other = perToken.get(i).get(candidate.getKey());
+                    score = other != null ? score + other : 0;
+                }
+                if (score > 0) {
+                    hits.add(new Hit<>(candidate.getKey(), documents.get(candidate.getKey()).value(), score));
+                }
+            }
+
+            hits.sort(Comparator.comparingDouble(Hit<T>::score).reversed().thenComparingLong(Hit::id));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best score per document over all terms the token matches exactly or as a prefix
+    private Map<Long, Double> scoreToken(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+        int total = documents.size();
+
+        for (Map.Entry<String, Map<Long, Double>> entry : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            String term = entry.getKey();
+            Map<Long, Double> docs = entry.getValue();
+
+            double idf = Math.log(1 + (double) total / docs.size());
+            double match = term.equals(token) ? 1 : PREFIX_FACTOR * token.length() / term.length();
+
+            for (Map.Entry<Long, Double> doc : docs.entrySet()) {
+                scores.merge(doc.getKey(), doc.getValue() * idf * match, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void removeLocked(long id) {
+        Document<T> existing = documents.remove(id);
+        if (existing == null) return;
+
+        for (String term : existing.terms()) {
+            Map<Long, Double> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) postings.remove(term);
+        }
+    }
+}
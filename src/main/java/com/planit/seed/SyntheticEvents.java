@@ -0,0 +1,116 @@
+package com.planit.seed;
+
+import com.planit.model.Event;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic fake events shaped like the real feeds: a few categories
+ * dominate, genres are skewed within them, start times cluster in the
+ * evening and venues are spread around Austin. The same seed always yields
+ * the same events, so runs on different branches see the same data.
+ */
+public final class SyntheticEvents {
+
+    public static final String PROVIDER = "SEED";
+
+    /** category, weight, genres */
+    private record CategorySpec(String name, int weight, String[] genres) {}
+
+    private record Venue(String name, double latitude, double longitude) {}
+
+    private static final List<CategorySpec> CATEGORIES = List.of(
+            new CategorySpec("Music", 50, new String[] {"Rock", "Pop", "Country", "Jazz", "Hip-Hop/Rap", "Alternative", "Latin"}),
+            new CategorySpec("Arts & Theatre", 20, new String[] {"Comedy", "Theatre", "Dance", "Classical"}),
+            new CategorySpec("Sports", 15, new String[] {"Basketball", "Soccer", "Hockey", "Baseball"}),
+            new CategorySpec("Fitness", 10, new String[] {"Wellness", "Yoga", "Cycling"}),
+            new CategorySpec("Miscellaneous", 5, new String[] {"Fairs & Festivals", "Family"}));
+
+    private static final String[] ADJECTIVES = {
+            "Electric", "Midnight", "Golden", "Velvet", "Lone Star", "Neon", "Wild", "Southern", "Cosmic", "Silver"};
+    private static final String[] NOUNS = {
+            "Horses", "Revival", "Collective", "Orchestra", "Parade", "Brothers", "Sessions", "Hour", "Society", "Riders"};
+    private static final String[] VENUE_NAMES = {
+            "Moody Center", "ACL Live", "Stubb's", "Emo's", "Mohawk", "Parish", "Continental Club", "Antone's",
+            "Paramount Theatre", "Q2 Stadium", "Scoot Inn", "White Horse", "Saxon Pub", "Cap City Comedy Club",
+            "Long Center", "Zilker Park", "Mueller Lake Park", "Far Out Lounge", "Empire Control Room", "Elysium"};
+
+    private SyntheticEvents() {}
+
+    /**
+     * @param from     midnight of the first day; start times are offsets from it
+     * @param spanDays start times are spread over this many days after {@code from}
+     */
+    public static List<Event> generate(int count, Instant from, int spanDays, long seed) {
+        Random random = new Random(seed);
+        List<Venue> venues = venues(random);
+        int totalWeight = CATEGORIES.stream().mapToInt(CategorySpec::weight).sum();
+
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CategorySpec category = pickCategory(random.nextInt(totalWeight));
+            // earlier genres in each list are more common
+            String[] genres = category.genres();
+            String genre = genres[Math.min(genres.length - 1, (int) (Math.abs(random.nextGaussian()) * genres.length / 2.5))];
+            Venue venue = venues.get((int) (Math.abs(random.nextGaussian()) * venues.size() / 2.5) % venues.size());
+
+            // mostly evenings, some matinees
+            int hour = random.nextInt(10) < 8 ? 18 + random.nextInt(4) : 10 + random.nextInt(6);
+            Instant start = from
+                    .plus(Duration.ofDays(random.nextInt(Math.max(1, spanDays))))
+                    .plus(Duration.ofHours(hour))
+                    .plus(Duration.ofMinutes(30L * random.nextInt(2)));
+
+            Event event = new Event();
+            event.setProvider(PROVIDER);
+            event.setExternalId("seed-" + seed + "-" + i);
+            event.setTitle(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                    + " " + genre + " Night " + i);
+            event.setCategory(category.name());
+            event.setGenre(genre);
+            event.setVenueName(venue.name());
+            event.setLatitude(venue.latitude());
+            event.setLongitude(venue.longitude());
+            event.setStartTime(start);
+            event.setEndTime(start.plus(Duration.ofHours(2 + random.nextInt(2))));
+            event.setUrl("https://example.com/events/" + event.getExternalId());
+            events.add(event);
+        }
+        return events;
+    }
+
+    public static List<String> categories() {
+        return CATEGORIES.stream().map(CategorySpec::name).toList();
+    }
+
+    public static List<String> genres(String category) {
+        return CATEGORIES.stream()
+                .filter(c -> c.name().equals(category))
+                .findFirst()
+                .map(c -> List.of(c.genres()))
+                .orElse(List.of());
+    }
+
+    private static CategorySpec pickCategory(int roll) {
+        for (CategorySpec category : CATEGORIES) {
+            roll -= category.weight();
+            if (roll < 0) return category;
+        }
+        return CATEGORIES.get(CATEGORIES.size() - 1);
+    }
+
+    // venues within ~15 km of downtown Austin
+    private static List<Venue> venues(Random random) {
+        List<Venue> venues = new ArrayList<>(VENUE_NAMES.length);
+        for (String name : VENUE_NAMES) {
+            venues.add(new Venue(name,
+                    30.2672 + (random.nextDouble() - 0.5) * 0.25,
+                    -97.7431 + (random.nextDouble() - 0.5) * 0.25));
+        }
+        return venues;
+    }
+}
@@ -0,0 +1,45 @@
+package com.planit.service;
+
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.model.Event;
+import com.planit.repository.EventRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the inserted and updated rows of an {@link EventsChangedEvent} for
+ * the read-side listeners. The first listener to ask pays for the load and
+ * the rest reuse it, so a batch costs one round of queries however many
+ * indexes patch themselves from it.
+ */
+@Component
+public class ChangedEventLoader {
+
+    // ids per IN list; a full staged refresh can change far more rows than
+    // the driver accepts bind parameters in one statement
+    static final int CHUNK_SIZE = 1000;
+
+    private final EventRepository eventRepository;
+
+    public ChangedEventLoader(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * Changed rows that still load; ones tombstoned or hidden as duplicates
+     * since are left out.
+     */
+    public List<Event> changedEvents(EventsChangedEvent event) {
+        return event.changedEvents(this::load);
+    }
+
+    private List<Event> load(List<Long> ids) {
+        List<Event> events = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            events.addAll(eventRepository.findAllById(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()))));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,206 @@
+package com.planit.service;
+
+import com.planit.model.Event;
+import com.planit.repository.EventFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * iCalendar (RFC 5545) feeds of events for GET /api/events.ics, the URL
+ * users subscribe to from Google or Apple Calendar.
+ *
+ * Calendar clients poll every few minutes, so each filter's feed is
+ * rendered once and kept in {@link EventResponseCache}, which drops it when
+ * ingestion commits new data. DTSTAMP is the dataset's last-modified time
+ * rather than the render time, so re-rendering unchanged data produces the
+ * same bytes and the ETag derived from the version stays valid.
+ *
+ * A feed covers events from {@code events.ics.past-days} before today
+ * onwards; events without a start time can't be placed on a calendar and
+ * are left out.
+ */
+@Service
+public class EventCalendarService {
+
+    private static final String CRLF = "\r\n";
+    // content lines are folded at 75 octets, continuation lines start with a space
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter UTC_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'", Locale.ROOT).withZone(ZoneOffset.UTC);
+
+    private final EventQueryService eventQueryService;
+    private final EventResponseCache responseCache;
+    private final EventDataVersion eventDataVersion;
+
+    @Value("${events.ics.past-days:30}")
+    private int pastDays;
+
+    @Value("${events.gzip-min-bytes:2048}")
+    private int gzipMinBytes;
+
+    public EventCalendarService(EventQueryService eventQueryService, EventResponseCache responseCache,
+                                EventDataVersion eventDataVersion) {
+        this.eventQueryService = eventQueryService;
+        this.responseCache = responseCache;
+        this.eventDataVersion = eventDataVersion;
+    }
+
+    /**
+     * The feed's filter: the requested categories and genres from the start
+     * of the window. Moves once a day, so the feed (and its ETag) does too.
+     */
+    public EventFilter filter(List<String> categories, List<String> genres) {
+        Instant from = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(pastDays, ChronoUnit.DAYS);
+        return EventFilter.of(categories, genres, from, null);
+    }
+
+    public String cacheKey(EventFilter filter) {
+        return "ics " + filter;
+    }
+
+    public EventResponseCache.CachedResponse feed(EventFilter filter) {
+        return responseCache.get(cacheKey(filter), () -> {
+            // stamped before reading, like the ETag, so DTSTAMP never claims data newer than the body
+            Instant stamp = eventDataVersion.current().lastModified();
+            List<Event> events = eventQueryService.find(filter, null, null).events();
+            try {
+                ByteArrayOutputStream body = new ByteArrayOutputStream(512 + events.size() * 400);
+                write(filter, events, stamp, body);
+                byte[] bytes = body.toByteArray();
+                return new EventResponseCache.CachedResponse(
+                        bytes, bytes.length >= gzipMinBytes ? EventQueryService.gzip(bytes) : null, null);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    /**
+     * Writes a VCALENDAR with one VEVENT per event. Doesn't close {@code out}.
+     */
+    static void write(EventFilter filter, List<Event> events, Instant stamp, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ContentLines lines = new ContentLines(writer);
+
+        lines.add("BEGIN:VCALENDAR");
+        lines.add("VERSION:2.0");
+        lines.add("PRODID:-//PlanIT//Events//EN");
+        lines.add("CALSCALE:GREGORIAN");
+        lines.add("METHOD:PUBLISH");
+        lines.add("X-WR-CALNAME:" + text(calendarName(filter)));
+        // polling hints for clients that honor them
+        lines.add("REFRESH-INTERVAL;VALUE=DURATION:PT1H");
+        lines.add("X-PUBLISHED-TTL:PT1H");
+
+        String dtStamp = UTC_DATE_TIME.format(stamp);
+        for (Event event : events) {
+            if (event.getStartTime() == null) continue;
+
+            lines.add("BEGIN:VEVENT");
+            // ids are stable across refreshes, so clients update events in place
+            lines.add("UID:event-" + event.getId() + "@planit");
+            lines.add("DTSTAMP:" + dtStamp);
+            lines.add("DTSTART:" + UTC_DATE_TIME.format(event.getStartTime()));
+            if (event.getEndTime() != null && event.getEndTime().isAfter(event.getStartTime())) {
+                lines.add("DTEND:" + UTC_DATE_TIME.format(event.getEndTime()));
+            }
+            lines.add("SUMMARY:" + text(event.getTitle() != null ? event.getTitle() : "Untitled event"));
+            if (event.getVenueName() != null) {
+                lines.add("LOCATION:" + text(event.getVenueName()));
+            }
+            if (event.getLatitude() != null && event.getLongitude() != null) {
+                lines.add("GEO:" + event.getLatitude() + ";" + event.getLongitude());
+            }
+            String categories = categories(event);
+            if (!categories.isEmpty()) {
+                lines.add("CATEGORIES:" + categories);
+            }
+            if (event.getUrl() != null) {
+                lines.add("URL:" + event.getUrl());
+            }
+            lines.add("END:VEVENT");
+        }
+        lines.add("END:VCALENDAR");
+        writer.flush();
+    }
+
+    private static String calendarName(EventFilter filter) {
+        StringBuilder name = new StringBuilder("PlanIT events");
+        if (filter.hasCategories()) name.append(" - ").append(String.join(", ", filter.categories()));
+        if (filter.hasGenres()) name.append(" - ").append(String.join(", ", filter.genres()));
+        return name.toString();
+    }
+
+    private static String categories(Event event) {
+        StringBuilder categories = new StringBuilder();
+        for (String value : new String[] {event.getCategory(), event.getGenre()}) {
+            if (value == null || value.isBlank()) continue;
+            if (!categories.isEmpty()) categories.append(',');
+            categories.append(text(value));
+        }
+        return categories.toString();
+    }
+
+    // TEXT value escaping (RFC 5545 3.3.11)
+    static String text(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case ';' -> escaped.append("\\;");
+                case ',' -> escaped.append("\\,");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> { }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Writes CRLF-terminated content lines, folded so no line exceeds 75
+     * octets of UTF-8 without splitting a character.
+     */
+    private static final class ContentLines {
+
+        private final Writer writer;
+
+        ContentLines(Writer writer) {
+            this.writer = writer;
+        }
+
+        void add(String line) throws IOException {
+            int octets = 0;
+            for (int i = 0; i < line.length(); ) {
+                int codePoint = line.codePointAt(i);
+                int width = utf8Length(codePoint);
+                if (octets + width > MAX_LINE_OCTETS) {
+                    writer.write(CRLF);
+                    writer.write(' ');
+                    octets = 1;
+                }
+                writer.write(line, i, Character.charCount(codePoint));
+                octets += width;
+                i += Character.charCount(codePoint);
+            }
+            writer.write(CRLF);
+        }
+
+        private static int utf8Length(int codePoint) {
+            if (codePoint < 0x80) return 1;
+            if (codePoint < 0x800) return 2;
+            if (codePoint < 0x10000) return 3;
+            return 4;
+        }
+    }
+}
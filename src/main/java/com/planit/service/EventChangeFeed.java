@@ -0,0 +1,279 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.model.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes ingestion changes to connected clients over Server-Sent Events.
+ *
+ * Each {@link EventsChangedEvent} is turned into one "changes" message:
+ * the inserted and updated events in full plus the ids that disappeared,
+ * loaded and serialized once no matter how many clients are listening.
+ *
+ * Subscribers never block ingestion: a message is only offered to each
+ * subscriber's bounded queue, and each queue is drained onto its connection
+ * by a virtual thread of its own, so a client that stops reading stalls
+ * nobody else. A client whose queue fills up is too slow to keep up and is
+ * disconnected; its EventSource reconnects with Last-Event-ID and
+ * catches up from the replay buffer, or gets a "reset" telling it to reload
+ * the list when it has fallen further behind than the buffer reaches.
+ */
+@Service
+public class EventChangeFeed implements DisposableBean {
+
+    /**
+     * Payload of a "changes" message.
+     *
+     * @param removed ids that are gone or no longer served (e.g. now a
+     *                duplicate of another provider's listing)
+     */
+    public record Changes(String provider, List<Event> inserted, List<Event> updated, List<Long> removed) {}
+
+    private record Message(long id, Set<ResponseBodyEmitter.DataWithMediaType> frames) {}
+
+    private final class Subscriber {
+        final SseEmitter emitter = newEmitter(timeoutMillis);
+        final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+    }
+
+    private final ChangedEventLoader changedEventLoader;
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final int replayCapacity;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // recent messages for reconnecting clients, guarded by itself; publishing
+    // and subscribing also lock it so a new subscriber can't miss a message
+    private final Deque<Message> replay = new ArrayDeque<>();
+    // starts from the boot time so ids from a previous instance are never mistaken for current ones
+    private final AtomicLong lastId = new AtomicLong(System.currentTimeMillis());
+
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeat;
+    private final Counter evicted;
+
+    public EventChangeFeed(ChangedEventLoader changedEventLoader, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${events.stream.queue-capacity:32}") int queueCapacity,
+                           @Value("${events.stream.replay-capacity:256}") int replayCapacity,
+                           @Value("${events.stream.max-subscribers:10000}") int maxSubscribers,
+                           @Value("${events.stream.timeout:30m}") Duration timeout,
+                           @Value("${events.stream.heartbeat:25s}") Duration heartbeatInterval) {
+        this.changedEventLoader = changedEventLoader;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.replayCapacity = replayCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+
+        // a write to a client that stopped reading blocks until the container gives up on it,
+        // which only ties up that client's own virtual thread
+        this.sender = Executors.newVirtualThreadPerTaskExecutor();
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("event-stream-heartbeat"));
+        // a comment line keeps proxies from closing idle connections and finds dead ones
+        Message ping = new Message(-1, SseEmitter.event().comment("ping").build());
+        heartbeat.scheduleWithFixedDelay(() -> subscribers.forEach(s -> offer(s, ping)),
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("events.stream.subscribers", subscribers, Set::size)
+                .description("Connected GET /api/events/stream clients")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("events.stream.evicted")
+                .description("Stream clients disconnected for falling behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a new stream. With a Last-Event-ID the client first gets
+     * the messages it missed, or a "reset" if they're no longer buffered.
+     *
+     * @throws RejectedExecutionException if {@code events.stream.max-subscribers} are connected
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("Too many event stream subscribers");
+        }
+
+        Subscriber subscriber = new Subscriber();
+        subscriber.emitter.onCompletion(() -> close(subscriber));
+        subscriber.emitter.onTimeout(() -> close(subscriber));
+        subscriber.emitter.onError(ex -> close(subscriber));
+
+        // tells the client the stream is open and sets the retry delay for reconnects
+        offer(subscriber, new Message(-1, SseEmitter.event().comment("connected").reconnectTime(3000).build()));
+
+        synchronized (replay) {
+            if (lastEventId != null && lastEventId != lastId.get()) {
+                List<Message> missed = replay.stream().filter(m -> m.id() > lastEventId).toList();
+                Message oldest = replay.peekFirst();
+                // ids from the future were issued by another instance
+                boolean covered = lastEventId < lastId.get() && oldest != null && oldest.id() <= lastEventId + 1
+                        && missed.size() < queueCapacity;
+                if (covered) {
+                    missed.forEach(m -> offer(subscriber, m));
+                } else {
+                    long id = lastId.get();
+                    offer(subscriber, new Message(id,
+                            SseEmitter.event().id(String.valueOf(id)).name("reset").data("{}").build()));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return subscriber.emitter;
+    }
+
+    @EventListener
+    public void onEventsChanged(EventsChangedEvent event) {
+        if (event.isEmpty()) return;
+
+        if (subscribers.isEmpty()) {
+            // nobody to tell; make sure a later reconnect resets instead of replaying a gap
+            synchronized (replay) {
+                lastId.incrementAndGet();
+                replay.clear();
+            }
+            return;
+        }
+
+        String json;
+        try {
+            json = toJson(event);
+        } catch (RuntimeException ex) {
+            // clients can't be told what changed, so have them all reload; the
+            // cleared buffer makes later reconnects reset too
+            System.err.println("Change feed couldn't serialize " + event + ", resetting clients: " + ex);
+            synchronized (replay) {
+                long id = lastId.incrementAndGet();
+                replay.clear();
+                Message reset = new Message(id,
+                        SseEmitter.event().id(String.valueOf(id)).name("reset").data("{}").build());
+                subscribers.forEach(s -> offer(s, reset));
+            }
+            return;
+        }
+        synchronized (replay) {
+            // ids are assigned under the lock so the replay buffer stays in order
+            long id = lastId.incrementAndGet();
+            Message message = new Message(id,
+                    SseEmitter.event().id(String.valueOf(id)).name("changes").data(json).build());
+            replay.addLast(message);
+            while (replay.size() > replayCapacity) replay.removeFirst();
+            subscribers.forEach(s -> offer(s, message));
+        }
+    }
+
+    private String toJson(EventsChangedEvent event) {
+        Set<Long> insertedIds = new HashSet<>(event.insertedIds());
+        List<Long> changed = event.changedIds();
+
+        List<Event> inserted = new ArrayList<>();
+        List<Event> updated = new ArrayList<>();
+        Set<Long> visible = new HashSet<>();
+        if (!changed.isEmpty()) {
+            for (Event e : changedEventLoader.changedEvents(event)) {
+                visible.add(e.getId());
+                (insertedIds.contains(e.getId()) ? inserted : updated).add(e);
+            }
+        }
+        // changed rows that no longer load were hidden as duplicates
+        List<Long> removed = new ArrayList<>(event.removedIds());
+        changed.stream().filter(id -> !visible.contains(id)).forEach(removed::add);
+
+        try {
+            return objectMapper.writeValueAsString(new Changes(event.provider(), inserted, updated, removed));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * Never blocks: a full queue evicts the subscriber instead, and the actual
+     * writes happen on a sender thread.
+     */
+    private void offer(Subscriber subscriber, Message message) {
+        if (subscriber.closed.get()) return;
+        if (!subscriber.queue.offer(message)) {
+            evicted.increment();
+            System.out.println("Disconnecting slow event stream client (" + queueCapacity + " messages behind)");
+            close(subscriber);
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Message message;
+            while (!subscriber.closed.get() && (message = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(message.frames());
+            }
+            if (subscriber.closed.get()) {
+                // evicted; completing here rather than in offer() keeps a stuck write off the publishing thread
+                subscriber.emitter.complete();
+                return;
+            }
+        } catch (Exception ex) {
+            // the client went away; the container reports it through onError/onCompletion too
+            close(subscriber);
+            subscriber.emitter.completeWithError(ex);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // a message may have arrived after the last poll but before draining was reset
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(s -> {
+            close(s);
+            s.emitter.complete();
+        });
+        sender.shutdownNow();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.planit.service;
+
+import com.planit.ingest.EventsChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Version of the event dataset, bumped every time ingestion commits changes.
+ * Read endpoints derive ETag and Last-Modified from it.
+ *
+ * Starts from the boot time so a restarted instance never reuses a version
+ * a client may have cached.
+ */
+@Component
+public class EventDataVersion {
+
+    public record Snapshot(long version, Instant lastModified) {}
+
+    private volatile Snapshot current = snapshotAt(Instant.now());
+
+    public Snapshot current() {
+        return current;
+    }
+
+    // last, once the read store and response cache reflect the change
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onEventsChanged(EventsChangedEvent event) {
+        if (event.isEmpty()) return;
+        synchronized (this) {
+            Instant now = Instant.now();
+            long next = Math.max(current.version() + 1, now.toEpochMilli());
+            current = new Snapshot(next, now.truncatedTo(ChronoUnit.SECONDS));
+        }
+    }
+
+    private static Snapshot snapshotAt(Instant instant) {
+        // HTTP dates have second precision
+        return new Snapshot(instant.toEpochMilli(), instant.truncatedTo(ChronoUnit.SECONDS));
+    }
+}
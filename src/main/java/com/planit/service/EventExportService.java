@@ -0,0 +1,151 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.planit.model.Event;
+import com.planit.repository.EventFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streams every event matching a filter as newline-delimited JSON, for bulk
+ * consumers that would otherwise page through or buffer the whole table.
+ *
+ * Rows come through a forward-only cursor {@code events.export.fetch-size}
+ * at a time and each is written out as soon as it's read, so memory use
+ * doesn't depend on how many rows match. The PostgreSQL driver only honors
+ * the fetch size inside a transaction, hence the read-only transaction
+ * around the query.
+ */
+@Service
+public class EventExportService {
+
+    private static final String COLUMNS = "id, ticketmaster_id, external_id, provider, title, category, genre, "
+            + "start_time, end_time, url, venue_name, latitude, longitude, region";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter writer;
+
+    @Value("${events.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // flush to the client every this many rows so it sees progress
+    @Value("${events.export.flush-rows:1000}")
+    private int flushRows;
+
+    public EventExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        // flushing after every row would send one tiny chunk per event
+        this.writer = objectMapper.writerFor(Event.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes one JSON object per line, ordered by (startTime, id) like
+     * GET /api/events. Doesn't close {@code out}.
+     *
+     * @return number of events written
+     */
+    @Transactional(readOnly = true)
+    public long export(EventFilter filter, OutputStream out) throws IOException {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM event WHERE " + where(filter, args) + " ORDER BY start_time, id";
+
+        long started = System.currentTimeMillis();
+        long[] rows = {0};
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            }, rs -> {
+                try {
+                    writer.writeValue(generator, event(rs));
+                    if (++rows[0] % flushRows == 0) generator.flush();
+                } catch (IOException ex) {
+                    // most likely the client went away; stops the query
+                    throw new UncheckedIOException(ex);
+                }
+            });
+
+            if (rows[0] > 0) generator.writeRaw('\n');
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        System.out.println("Exported " + rows[0] + " events (" + filter + ") in "
+                + (System.currentTimeMillis() - started) + " ms");
+        return rows[0];
+    }
+
+    /**
+     * Same predicates as {@code EventSpecifications.matching} plus the
+     * entity's tombstone/duplicate restriction, which plain SQL doesn't get.
+     */
+    private static String where(EventFilter filter, List<Object> args) {
+        StringBuilder where = new StringBuilder("removed_at IS NULL AND canonical_id IS NULL");
+        if (filter.hasCategories()) {
+            where.append(" AND category IN (").append(placeholders(filter.categories().size())).append(')');
+            args.addAll(filter.categories());
+        }
+        if (filter.hasGenres()) {
+            where.append(" AND genre IN (").append(placeholders(filter.genres().size())).append(')');
+            args.addAll(filter.genres());
+        }
+        if (filter.from() != null) {
+            where.append(" AND start_time >= ?");
+            args.add(Timestamp.from(filter.from()));
+        }
+        if (filter.to() != null) {
+            where.append(" AND start_time < ?");
+            args.add(Timestamp.from(filter.to()));
+        }
+        return where.toString();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static Event event(ResultSet rs) throws SQLException {
+        Event event = new Event();
+        event.setId(rs.getLong("id"));
+        event.setTicketmasterId(rs.getString("ticketmaster_id"));
+        event.setExternalId(rs.getString("external_id"));
+        event.setProvider(rs.getString("provider"));
+        event.setTitle(rs.getString("title"));
+        event.setCategory(rs.getString("category"));
+        event.setGenre(rs.getString("genre"));
+        Timestamp start = rs.getTimestamp("start_time");
+        event.setStartTime(start != null ? start.toInstant() : null);
+        Timestamp end = rs.getTimestamp("end_time");
+        event.setEndTime(end != null ? end.toInstant() : null);
+        event.setUrl(rs.getString("url"));
+        event.setVenueName(rs.getString("venue_name"));
+        event.setLatitude(rs.getObject("latitude", Double.class));
+        event.setLongitude(rs.getObject("longitude", Double.class));
+        event.setRegion(rs.getString("region"));
+        return event;
+    }
+}
@@ -0,0 +1,113 @@
+package com.planit.service;
+
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.repository.CategoryGenreCount;
+import com.planit.repository.EventRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Distinct categories and genres with event counts, for the filter UI.
+ *
+ * The all-time facets are computed from one GROUP BY query and kept until
+ * ingestion commits changes; time-windowed facets run the same aggregate
+ * over the start_time index.
+ */
+@Service
+public class EventFacetService {
+
+    public static final String UNCATEGORIZED = "Uncategorized";
+
+    public record GenreFacet(String name, long count) {}
+
+    public record CategoryFacet(String name, long count, List<GenreFacet> genres) {}
+
+    public record Facets(long total, List<CategoryFacet> categories) {}
+
+    // facets and the generation they were computed in
+    private record AllTime(long generation, Facets facets) {}
+
+    private final EventRepository eventRepository;
+
+    private final AtomicReference<AllTime> allTime = new AtomicReference<>();
+    // bumped on every change; facets computed in an older generation are never served
+    private final AtomicLong generation = new AtomicLong();
+
+    public EventFacetService(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * @param from inclusive lower bound on startTime, or null
+     * @param to   exclusive upper bound on startTime, or null
+     */
+    public Facets facets(Instant from, Instant to) {
+        if (from == null && to == null) {
+            AllTime cached = allTime.get();
+            if (cached != null && cached.generation() == generation.get()) {
+                return cached.facets();
+            }
+            return refreshAllTime();
+        }
+
+        return build(eventRepository.countByCategoryAndGenreBetween(
+                from != null ? from : Instant.EPOCH,
+                to != null ? to : Instant.parse("9999-12-31T00:00:00Z")));
+    }
+
+    // before EventDataVersion moves on, like the response cache
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onEventsChanged(EventsChangedEvent event) {
+        if (!event.isEmpty()) {
+            // recomputed on the next request rather than once per ingestion batch
+            generation.incrementAndGet();
+            allTime.set(null);
+        }
+    }
+
+    private synchronized Facets refreshAllTime() {
+        long startedAt = generation.get();
+        AllTime cached = allTime.get();
+        if (cached != null && cached.generation() == startedAt) {
+            return cached.facets();
+        }
+
+        Facets facets = build(eventRepository.countByCategoryAndGenre());
+        // tagged with the generation it started in, so if a commit landed
+        // meanwhile it's never served; and not stored over an invalidation
+        allTime.compareAndSet(cached, new AllTime(startedAt, facets));
+        return facets;
+    }
+
+    static Facets build(List<CategoryGenreCount> rows) {
+        Map<String, Map<String, Long>> genresByCategory = new TreeMap<>();
+        Map<String, Long> categoryTotals = new HashMap<>();
+        long total = 0;
+
+        for (CategoryGenreCount row : rows) {
+            String category = row.category() != null ? row.category() : UNCATEGORIZED;
+            categoryTotals.merge(category, row.count(), Long::sum);
+            Map<String, Long> genres = genresByCategory.computeIfAbsent(category, c -> new TreeMap<>());
+            if (row.genre() != null) {
+                genres.merge(row.genre(), row.count(), Long::sum);
+            }
+            total += row.count();
+        }
+
+        List<CategoryFacet> categories = new ArrayList<>(genresByCategory.size());
+        genresByCategory.forEach((category, genres) -> categories.add(new CategoryFacet(
+                category,
+                categoryTotals.get(category),
+                genres.entrySet().stream().map(g -> new GenreFacet(g.getKey(), g.getValue())).toList())));
+
+        return new Facets(total, categories);
+    }
+}
@@ -0,0 +1,150 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.model.Event;
+import com.planit.repository.EventCursor;
+import com.planit.repository.EventFilter;
+import com.planit.repository.EventRepository;
+import com.planit.repository.EventSpecifications;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read side of GET /api/events: filtered, time-windowed and keyset-paginated
+ * on (startTime, id).
+ *
+ * Answered from the in-memory {@link EventStoreService} once it's loaded,
+ * otherwise through JPA; events.query times both, tagged by engine.
+ */
+@Service
+public class EventQueryService {
+
+    private static final Sort KEYSET_ORDER = Sort.by("startTime", "id");
+
+    private final EventRepository eventRepository;
+    private final EventResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final EventStoreService eventStore;
+    private final Timer storeTimer;
+    private final Timer jpaTimer;
+
+    @Value("${events.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${events.gzip-min-bytes:2048}")
+    private int gzipMinBytes;
+
+    public EventQueryService(EventRepository eventRepository, EventResponseCache responseCache,
+                             ObjectMapper objectMapper, EventStoreService eventStore, MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.eventStore = eventStore;
+        this.storeTimer = queryTimer("store", meterRegistry);
+        this.jpaTimer = queryTimer("jpa", meterRegistry);
+    }
+
+    private static Timer queryTimer(String engine, MeterRegistry meterRegistry) {
+        return Timer.builder("events.query")
+                .description("Event lookups behind GET /api/events, excluding serialization and cache hits")
+                .tag("engine", engine)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same as {@link #find} but returns the JSON array already serialized,
+     * served from {@link EventResponseCache} when possible.
+     */
+    public EventResponseCache.CachedResponse findSerialized(EventFilter filter, Integer limit, EventCursor after) {
+        return responseCache.get(cacheKey(filter, limit, after), () -> {
+            EventPage page = find(filter, limit, after);
+            try {
+                byte[] body = objectMapper.writeValueAsBytes(page.events());
+                return new EventResponseCache.CachedResponse(
+                        body,
+                        body.length >= gzipMinBytes ? gzip(body) : null,
+                        page.next() != null ? page.next().encode() : null);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    /**
+     * Identifies a distinct response; also used to derive its ETag.
+     */
+    public String cacheKey(EventFilter filter, Integer limit, EventCursor after) {
+        return filter + " limit=" + limit + " after=" + (after != null ? after.encode() : null);
+    }
+
+    static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param next cursor for the following page, or null if this was the last one
+     */
+    public record EventPage(List<Event> events, EventCursor next) {}
+
+    /**
+     * @param limit page size, capped at {@code events.max-page-size}; null returns
+     *              every match in one go (the pre-pagination behavior)
+     */
+    public EventPage find(EventFilter filter, Integer limit, EventCursor after) {
+        if (eventStore.isReady()) {
+            return storeTimer.record(() -> fromStore(filter, limit, after));
+        }
+        return jpaTimer.record(() -> fromDatabase(filter, limit, after));
+    }
+
+    private EventPage fromStore(EventFilter filter, Integer limit, EventCursor after) {
+        if (limit == null && after == null) {
+            return new EventPage(eventStore.find(filter, null, null), null);
+        }
+        int pageSize = pageSize(limit);
+        return page(eventStore.find(filter, after, pageSize), pageSize);
+    }
+
+    private EventPage fromDatabase(EventFilter filter, Integer limit, EventCursor after) {
+        Specification<Event> spec = EventSpecifications.matching(filter, after);
+
+        if (limit == null && after == null) {
+            return new EventPage(eventRepository.findAll(spec, KEYSET_ORDER), null);
+        }
+
+        int pageSize = pageSize(limit);
+
+        // events without a start time can't be placed in the keyset order
+        List<Event> events = eventRepository.findBy(spec.and(EventSpecifications.hasStartTime()),
+                q -> q.sortBy(KEYSET_ORDER).limit(pageSize).all());
+        return page(events, pageSize);
+    }
+
+    private int pageSize(Integer limit) {
+        return Math.max(1, Math.min(limit != null ? limit : maxPageSize, maxPageSize));
+    }
+
+    private static EventPage page(List<Event> events, int pageSize) {
+        EventCursor next = null;
+        if (events.size() == pageSize) {
+            Event last = events.get(events.size() - 1);
+            next = new EventCursor(last.getStartTime(), last.getId());
+        }
+        return new EventPage(events, next);
+    }
+}
@@ -0,0 +1,135 @@
+package com.planit.service;
+
+import com.planit.ingest.EventsChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pre-serialized read responses keyed by normalized filter.
+ *
+ * Entries are evicted least-recently-used once the cache exceeds
+ * {@code events.cache.max-entries} or {@code events.cache.max-bytes}, expire
+ * after {@code events.cache.ttl-seconds}, and are all dropped whenever
+ * ingestion commits new data.
+ */
+@Component
+public class EventResponseCache {
+
+    /**
+     * @param gzipped the body gzip-compressed once up front, or null if it's
+     *                too small to be worth compressing
+     */
+    public record CachedResponse(byte[] body, byte[] gzipped, String nextCursor) {
+
+        int size() {
+            return body.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+
+    private record Entry(CachedResponse response, long expiresAt) {}
+
+    public record Stats(long hits, long misses, long evictions, long expirations, long invalidations,
+                        int entries, long bytes) {}
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private long bytes;
+    // bumped on every invalidation so a response rendered from pre-commit data isn't stored after it
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EventResponseCache(@Value("${events.cache.max-entries:256}") int maxEntries,
+                              @Value("${events.cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${events.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * Returns the cached response for the key, rendering and storing it on a miss.
+     */
+    public CachedResponse get(String key, Supplier<CachedResponse> render) {
+        long renderGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAt() < 0) {
+                    hits.incrementAndGet();
+                    return entry.response();
+                }
+                remove(key);
+                expirations.incrementAndGet();
+            }
+            renderGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        CachedResponse response = render.get();
+
+        synchronized (this) {
+            if (renderGeneration == generation && response.size() <= maxBytes) {
+                Entry previous = entries.put(key, new Entry(response, System.nanoTime() + ttlNanos));
+                if (previous != null) bytes -= previous.response().size();
+                bytes += response.size();
+                evictOverflow();
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Runs before {@link EventDataVersion} moves on, so no request can pair
+     * the new version with a body cached from the old data.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onEventsChanged(EventsChangedEvent event) {
+        if (!event.isEmpty()) {
+            invalidateAll();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        bytes = 0;
+        invalidations.incrementAndGet();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), expirations.get(), invalidations.get(),
+                entries.size(), bytes);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().response().size();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) bytes -= removed.response().size();
+    }
+}
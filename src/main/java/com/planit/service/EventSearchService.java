@@ -0,0 +1,74 @@
+package com.planit.service;
+
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.model.Event;
+import com.planit.repository.EventRepository;
+import com.planit.search.InvertedIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typeahead search over event title, venue, category and genre.
+ *
+ * Backed by an in-memory inverted index loaded at startup and patched from
+ * {@link EventsChangedEvent}s, so a keystroke never scans the event table.
+ */
+@Service
+public class EventSearchService {
+
+    private final EventRepository eventRepository;
+    private final ChangedEventLoader changedEventLoader;
+    private final InvertedIndex<Event> index = new InvertedIndex<>(List.of(
+            new InvertedIndex.Field<>(Event::getTitle, 3.0),
+            new InvertedIndex.Field<>(Event::getVenueName, 2.0),
+            new InvertedIndex.Field<>(Event::getCategory, 1.0),
+            new InvertedIndex.Field<>(Event::getGenre, 1.0)));
+
+    public EventSearchService(EventRepository eventRepository, ChangedEventLoader changedEventLoader) {
+        this.eventRepository = eventRepository;
+        this.changedEventLoader = changedEventLoader;
+    }
+
+    public List<Event> search(String query, int limit) {
+        List<Event> events = new ArrayList<>();
+        for (InvertedIndex.Hit<Event> hit : index.search(query, limit)) {
+            events.add(hit.value());
+        }
+        return events;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        index.clear();
+        for (Event event : eventRepository.findAll()) {
+            index.put(event.getId(), event);
+        }
+        System.out.println("Loaded " + index.size() + " events into the search index in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    @EventListener
+    public void onEventsChanged(EventsChangedEvent event) {
+        if (event.isEmpty()) return;
+
+        event.removedIds().forEach(index::remove);
+
+        List<Long> changed = event.changedIds();
+        if (!changed.isEmpty()) {
+            // rows that became duplicates no longer load, so drop everything first
+            changed.forEach(index::remove);
+            try {
+                changedEventLoader.changedEvents(event).forEach(e -> index.put(e.getId(), e));
+            } catch (RuntimeException ex) {
+                // the changed rows stay out of suggestions until the next change or restart;
+                // listeners after this one still have to see the event
+                System.err.println("Search index missed " + event + ": " + ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.planit.service;
+
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.model.Event;
+import com.planit.repository.EventCursor;
+import com.planit.repository.EventFilter;
+import com.planit.repository.EventRepository;
+import com.planit.store.CompactEventStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional read engine for GET /api/events: keeps every served event in a
+ * {@link CompactEventStore}, loaded at startup and patched from
+ * {@link EventsChangedEvent}s, so filter and time-window queries never touch
+ * the database. Off unless {@code events.store.enabled}; until the first
+ * load finishes {@link #isReady()} is false and reads go through JPA.
+ *
+ * Exposes events.store.events and events.store.bytes so the memory per
+ * event can be watched next to the events.query latencies.
+ */
+@Service
+public class EventStoreService {
+
+    private final EventRepository eventRepository;
+    private final ChangedEventLoader changedEventLoader;
+    private final boolean enabled;
+
+    private volatile CompactEventStore store;
+
+    public EventStoreService(EventRepository eventRepository, ChangedEventLoader changedEventLoader,
+                             MeterRegistry meterRegistry, @Value("${events.store.enabled:false}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.changedEventLoader = changedEventLoader;
+        this.enabled = enabled;
+
+        Gauge.builder("events.store.events", this, s -> s.store != null ? s.store.size() : 0)
+                .description("Events held by the in-memory read store")
+                .register(meterRegistry);
+        Gauge.builder("events.store.bytes", this, s -> s.store != null ? s.store.estimatedBytes() : 0)
+                .description("Estimated heap used by the in-memory read store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return store != null;
+    }
+
+    /**
+     * @param limit page size, or null for every match
+     * @throws IllegalStateException if the store isn't loaded
+     */
+    public List<Event> find(EventFilter filter, EventCursor after, Integer limit) {
+        CompactEventStore current = store;
+        if (current == null) {
+            throw new IllegalStateException("Event store not loaded");
+        }
+        return current.query(filter, after, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        if (!enabled) return;
+
+        long started = System.currentTimeMillis();
+        CompactEventStore loaded = CompactEventStore.of(eventRepository.findAll());
+        store = loaded;
+
+        long bytes = loaded.estimatedBytes();
+        System.out.println("Loaded " + loaded.size() + " events into the compact store in "
+                + (System.currentTimeMillis() - started) + " ms: " + (bytes >> 20) + " MB, "
+                + (loaded.size() > 0 ? bytes / loaded.size() : 0) + " bytes/event");
+    }
+
+    /**
+     * Runs before the response cache and dataset version react to the same
+     * event, so a response rendered after they have moved on can't come from
+     * the old store. Never throws: a store that can't be patched is dropped,
+     * and reads go through JPA, rather than stopping the cache and version
+     * from moving on.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onEventsChanged(EventsChangedEvent event) {
+        if (event.isEmpty() || store == null) return;
+
+        List<Long> changed = event.changedIds();
+        // changed rows that don't load anymore were hidden as duplicates
+        List<Long> removed = new ArrayList<>(event.removedIds());
+        removed.addAll(changed);
+        try {
+            List<Event> upserted = changed.isEmpty() ? List.of() : changedEventLoader.changedEvents(event);
+            store = store.withChanges(removed, upserted);
+        } catch (RuntimeException ex) {
+            store = null;
+            System.err.println("Event store missed " + event + ", reads go through JPA until restart: " + ex);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.model.Event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Consumer;
+
+/**
+ * Streams the Classes[] array of a Mindbody class/classes response, one
+ * class at a time.
+ */
+public class MindbodyClassParser {
+
+    private final ObjectMapper mapper;
+    private final Runnable onParseFailure;
+
+    public MindbodyClassParser(ObjectMapper mapper) {
+        this(mapper, () -> {});
+    }
+
+    /**
+     * @param onParseFailure called for every class that can't be parsed
+     */
+    public MindbodyClassParser(ObjectMapper mapper, Runnable onParseFailure) {
+        this.mapper = mapper;
+        this.onParseFailure = onParseFailure;
+    }
+
+    public int parse(InputStream body, Consumer<Event> sink) throws IOException {
+        return parse(body, sink, () -> {});
+    }
+
+    /**
+     * @param onSkipped called for every class that can't be mapped and so never
+     *                  reaches the sink
+     * @return number of classes handed to the sink
+     */
+    public int parse(InputStream body, Consumer<Event> sink, Runnable onSkipped) throws IOException {
+        int count = 0;
+
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return count;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                if ("Classes".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        JsonNode node = mapper.readTree(parser);
+                        Event event;
+                        try {
+                            event = map(node);
+                        } catch (RuntimeException ex) {
+                            // e.g. a StartDateTime that isn't ISO local time; skip just this class
+                            onParseFailure.run();
+                            onSkipped.run();
+                            System.err.println("Skipping unparseable Mindbody class " + node.path("Id").asText() + ": " + ex);
+                            continue;
+                        }
+                        if (event != null) {
+                            sink.accept(event);
+                            count++;
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Maps a single Mindbody class; returns null if it has no id.
+     */
+    public Event map(JsonNode mindbodyClass) {
+        String mbId = mindbodyClass.path("Id").asText(null);
+        if (mbId == null) return null;
+
+        Event event = new Event();
+
+        // identity fields
+        event.setProvider("MINDBODY");
+        event.setExternalId(mbId);
+
+        event.setTitle(mindbodyClass.path("ClassDescription").path("Name").asText("Mindbody Class"));
+        event.setCategory("Fitness");
+        event.setGenre("Wellness");
+
+        event.setVenueName(
+                mindbodyClass.path("Location").path("Name").asText("Mindbody Studio")
+        );
+
+        // Mindbody sends local studio time without an offset
+        String startRaw = mindbodyClass.path("StartDateTime").asText(null);
+        String endRaw   = mindbodyClass.path("EndDateTime").asText(null);
+
+        ZoneId zone = ZoneId.of("America/Chicago");
+
+        event.setStartTime(startRaw != null
+                ? LocalDateTime.parse(startRaw).atZone(zone).toInstant()
+                : null);
+
+        event.setEndTime(endRaw != null
+                ? LocalDateTime.parse(endRaw).atZone(zone).toInstant()
+                : null);
+
+        event.setUrl(null);
+
+        return event;
+    }
+}
@@ -1,22 +1,28 @@
 package com.planit.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.ingest.EventProvider;
+import com.planit.ingest.IngestionMetrics;
+import com.planit.ingest.IngestionProgress;
+import com.planit.ingest.Region;
+import com.planit.ingest.ResponseArchive;
 import com.planit.model.Event;
-import com.planit.repository.EventRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
-import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
-public class MindbodyService {
+public class MindbodyService implements EventProvider {
 
-    private final EventRepository eventRepository;
     private final RestClient restClient;
+    private final MindbodyClassParser parser;
+    private final ResponseArchive archive;
 
     @Value("${mindbody.api.key:}")
     private String apiKey;
@@ -24,16 +30,27 @@ public class MindbodyService {
     @Value("${mindbody.site.id:-99}")
     private String siteId;
 
-    public MindbodyService(EventRepository eventRepository) {
-        this.eventRepository = eventRepository;
-        this.restClient = RestClient.builder()
+    public MindbodyService(RestTemplate providerRestTemplate, IngestionMetrics metrics, ResponseArchive archive) {
+        this.archive = archive;
+        this.restClient = RestClient.builder(providerRestTemplate)
                 .baseUrl("https://api.mindbodyonline.com/public/v6")
-                .defaultHeader("User-Agent", "PlanIT")
                 .build();
+        this.parser = new MindbodyClassParser(new ObjectMapper(), metrics.parseFailures(name())::increment);
     }
 
-    public void fetchAndSaveEvents() {
-        JsonNode response = restClient.get()
+    @Override
+    public String name() {
+        return "MINDBODY";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    @Override
+    public void fetchEvents(Region region, Consumer<Event> sink, IngestionProgress progress) {
+        Integer classes = restClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/class/classes")
                         .queryParam("StartDateTime", OffsetDateTime.now().toString())
@@ -41,54 +58,21 @@ public class MindbodyService {
                         .build())
                 .header("Api-Key", apiKey)
                 .header("SiteId", siteId)
-                .retrieve()
-                .body(JsonNode.class);
-
-        if (response == null || !response.has("Classes")) {
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new IllegalStateException("Mindbody call failed: " + response.getStatusCode());
+                    }
+                    return archive.record(name(), null, response.getBody(), body -> parser.parse(body, sink, progress::eventSkipped));
+                });
+        progress.pageFetched();
+
+        if (classes == null || classes == 0) {
             System.out.println("No Mindbody classes found");
-            return;
-        }
-
-        for (JsonNode mindbodyClass : response.get("Classes")) {
-            String mbId = mindbodyClass.path("Id").asText(null);
-            if (mbId == null) continue;
-
-            Optional<Event> maybeExisting =
-                    eventRepository.findByProviderAndExternalId("MINDBODY", mbId);
-
-            Event event = maybeExisting.orElseGet(Event::new);
-
-            // identity fields
-            event.setProvider("MINDBODY");
-            event.setExternalId(mbId);
-
-            event.setTitle(mindbodyClass.path("ClassDescription").path("Name").asText("Mindbody Class"));
-            event.setCategory("Fitness");
-            event.setGenre("Wellness");
-
-            event.setVenueName(
-                    mindbodyClass.path("Location").path("Name").asText("Mindbody Studio")
-            );
-
-            // store as ISO string to match the rest of the codebase
-            String startRaw = mindbodyClass.path("StartDateTime").asText(null);
-            String endRaw   = mindbodyClass.path("EndDateTime").asText(null);
-
-            ZoneId zone = ZoneId.of("America/Chicago");
-
-            event.setStartTime(startRaw != null
-                    ? LocalDateTime.parse(startRaw).atZone(zone).toInstant().toString()
-                    : null);
-
-            event.setEndTime(endRaw != null
-                    ? LocalDateTime.parse(endRaw).atZone(zone).toInstant().toString()
-                    : null);
-
-            event.setUrl(null);
-
-            eventRepository.save(event);
         }
+    }
 
-        System.out.println("Mindbody classes saved");
+    @Override
+    public int parsePage(InputStream body, Consumer<Event> sink) throws IOException {
+        return parser.parse(body, sink);
     }
 }
@@ -0,0 +1,123 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.planit.geo.GeoGridIndex;
+import com.planit.geo.GeoHash;
+import com.planit.geo.Haversine;
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.model.Event;
+import com.planit.repository.EventRepository;
+import com.planit.repository.EventSpecifications;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Events within a radius of a point, nearest first.
+ *
+ * Served from an in-memory grid of every event with coordinates, loaded at
+ * startup and patched from {@link EventsChangedEvent}s as ingestion writes.
+ * Until the first load finishes, queries fall back to a geohash prefix scan
+ * in the database.
+ */
+@Service
+public class NearbyEventService {
+
+    public static final double MAX_RADIUS_KM = 500;
+
+    // ~5.5 km cells: a typical city-scale radius touches a handful of them
+    private static final double CELL_DEGREES = 0.05;
+
+    public record NearbyEvent(@JsonUnwrapped Event event, double distanceKm) {}
+
+    private final EventRepository eventRepository;
+    private final ChangedEventLoader changedEventLoader;
+    private final GeoGridIndex<Event> index = new GeoGridIndex<>(CELL_DEGREES);
+
+    private volatile boolean loaded;
+
+    public NearbyEventService(EventRepository eventRepository, ChangedEventLoader changedEventLoader) {
+        this.eventRepository = eventRepository;
+        this.changedEventLoader = changedEventLoader;
+    }
+
+    /**
+     * @param from inclusive lower bound on startTime, or null
+     * @param to   exclusive upper bound on startTime, or null
+     */
+    public List<NearbyEvent> nearby(double lat, double lon, double radiusKm, Instant from, Instant to, int limit) {
+        Predicate<Event> inWindow = event -> {
+            Instant start = event.getStartTime();
+            if (from != null && (start == null || start.isBefore(from))) return false;
+            return to == null || (start != null && start.isBefore(to));
+        };
+
+        if (!loaded) {
+            return fromDatabase(lat, lon, radiusKm, inWindow, limit);
+        }
+
+        List<NearbyEvent> result = new ArrayList<>();
+        for (GeoGridIndex.Hit<Event> hit : index.within(lat, lon, radiusKm, inWindow, limit)) {
+            result.add(new NearbyEvent(hit.value(), hit.distanceKm()));
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        index.clear();
+        for (Event event : eventRepository.findAll()) {
+            put(event);
+        }
+        loaded = true;
+        System.out.println("Loaded " + index.size() + " events into the geo index in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    @EventListener
+    public void onEventsChanged(EventsChangedEvent event) {
+        if (event.isEmpty()) return;
+
+        event.removedIds().forEach(index::remove);
+
+        List<Long> changed = event.changedIds();
+        if (!changed.isEmpty()) {
+            // updated rows may have lost their coordinates or become duplicates
+            changed.forEach(index::remove);
+            try {
+                changedEventLoader.changedEvents(event).forEach(this::put);
+            } catch (RuntimeException ex) {
+                // the grid no longer matches the table; answer from the database
+                // instead, and let the listeners after this one see the event
+                loaded = false;
+                System.err.println("Geo index missed " + event + ", falling back to the database: " + ex);
+            }
+        }
+    }
+
+    private void put(Event event) {
+        if (event.getLatitude() != null && event.getLongitude() != null) {
+            index.put(event.getId(), event.getLatitude(), event.getLongitude(), event);
+        }
+    }
+
+    private List<NearbyEvent> fromDatabase(double lat, double lon, double radiusKm, Predicate<Event> inWindow, int limit) {
+        List<Event> candidates = eventRepository.findAll(
+                EventSpecifications.inGeohashCells(GeoHash.coveringCells(lat, lon, radiusKm)));
+
+        return candidates.stream()
+                .filter(inWindow)
+                .map(e -> new NearbyEvent(e, Haversine.distanceKm(lat, lon, e.getLatitude(), e.getLongitude())))
+                .filter(n -> n.distanceKm() <= radiusKm)
+                .sorted(Comparator.comparingDouble(NearbyEvent::distanceKm).thenComparing(n -> n.event().getId()))
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.model.Event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Streams the events[] array of a SeatGeek /events response, one event at a
+ * time, and reads the listing's size from meta.
+ */
+public class SeatGeekEventParser {
+
+    private final ObjectMapper mapper;
+    private final Runnable onParseFailure;
+
+    public SeatGeekEventParser(ObjectMapper mapper) {
+        this(mapper, () -> {});
+    }
+
+    /**
+     * @param onParseFailure called for every event that can't be parsed
+     */
+    public SeatGeekEventParser(ObjectMapper mapper, Runnable onParseFailure) {
+        this.mapper = mapper;
+        this.onParseFailure = onParseFailure;
+    }
+
+    public int parse(InputStream body, Consumer<Event> sink) throws IOException {
+        return parse(body, sink, () -> {});
+    }
+
+    /**
+     * Parses one /events page, handing each mapped event to the sink.
+     *
+     * @param onSkipped called for every event that can't be mapped and so never
+     *                  reaches the sink
+     * @return pages in the listing, from meta.total and meta.per_page, or 1
+     *         if meta is missing
+     */
+    public int parse(InputStream body, Consumer<Event> sink, Runnable onSkipped) throws IOException {
+        int totalPages = 1;
+
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return totalPages;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                if ("events".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        JsonNode node = mapper.readTree(parser);
+                        Event event;
+                        try {
+                            event = map(node);
+                        } catch (RuntimeException ex) {
+                            onParseFailure.run();
+                            onSkipped.run();
+                            System.err.println("Skipping unparseable SeatGeek event " + node.path("id").asText() + ": " + ex);
+                            continue;
+                        }
+                        if (event != null) {
+                            sink.accept(event);
+                        }
+                    }
+                } else if ("meta".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    JsonNode meta = mapper.readTree(parser);
+                    int total = meta.path("total").asInt(0);
+                    int perPage = meta.path("per_page").asInt(0);
+                    totalPages = perPage > 0 ? Math.max(1, (total + perPage - 1) / perPage) : 1;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return totalPages;
+    }
+
+    /**
+     * Maps a single SeatGeek event; returns null if it has no id.
+     */
+    public Event map(JsonNode e) {
+        String sgId = e.path("id").asText(null);
+        if (sgId == null) return null;
+
+        Event event = new Event();
+
+        // identity fields
+        event.setProvider("SEATGEEK");
+        event.setExternalId(sgId);
+
+        // basic fields
+        event.setTitle(safeText(e.path("title")));
+        event.setUrl(safeText(e.path("url")));
+
+        // venue
+        JsonNode venue = e.path("venue");
+        event.setVenueName(safeText(venue.path("name")));
+
+        JsonNode location = venue.path("location");
+        if (location.path("lat").isNumber()) {
+            event.setLatitude(location.path("lat").asDouble());
+        }
+        if (location.path("lon").isNumber()) {
+            event.setLongitude(location.path("lon").asDouble());
+        }
+
+        // dates (datetime_utc has no zone suffix, e.g. 2026-03-01T01:30:00)
+        if (e.hasNonNull("datetime_utc")) {
+            String start = e.path("datetime_utc").asText();
+            Instant startInstant = Instant.parse(start.endsWith("Z") ? start : start + "Z");
+            event.setStartTime(startInstant);
+            event.setEndTime(startInstant.plus(Duration.ofHours(2)));
+        }
+
+        // category
+        JsonNode taxonomies = e.path("taxonomies");
+        if (taxonomies.isArray() && taxonomies.size() > 0) {
+            event.setCategory(safeText(taxonomies.get(0).path("name")));
+        }
+
+        // genre
+        JsonNode performers = e.path("performers");
+        if (performers.isArray() && performers.size() > 0) {
+            event.setGenre(safeText(performers.get(0).path("type")));
+        }
+
+        return event;
+    }
+
+    private String safeText(JsonNode node) {
+        return (node == null || node.isNull() || node.isMissingNode()) ? null : node.asText(null);
+    }
+}
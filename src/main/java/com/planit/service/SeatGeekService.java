@@ -1,119 +1,132 @@
-/*
 package com.planit.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.ingest.EventProvider;
+import com.planit.ingest.IngestionMetrics;
+import com.planit.ingest.IngestionProgress;
+import com.planit.ingest.PagedCrawler;
+import com.planit.ingest.RateLimiter;
+import com.planit.ingest.Region;
+import com.planit.ingest.ResponseArchive;
 import com.planit.model.Event;
-import com.planit.repository.EventRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.time.*;
-import java.util.Iterator;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Service
-@RequiredArgsConstructor
-public class SeatGeekService {
+public class SeatGeekService implements EventProvider {
 
-    private final RestTemplate rest = new RestTemplate();
-    private final ObjectMapper mapper = new ObjectMapper();
-    private final EventRepository eventRepository;
+    private final RestTemplate rest;
+    private final SeatGeekEventParser parser;
+    private final ResponseArchive archive;
 
-    @Value("${seatgeek.base.url}")
+    @Value("${seatgeek.base-url:https://api.seatgeek.com/2}")
     private String baseUrl;
 
-    @Value("${seatgeek.client.id:}")
+    @Value("${seatgeek.client-id:}")
     private String clientId;
 
-    public void fetchAndSaveEvents() {
-        String url = UriComponentsBuilder
-                .fromUriString(baseUrl)
-                .queryParam("client_id", clientId)
-                .queryParam("venue.city", "Austin")
-                .queryParam("per_page", 50)
-                .build()
-                .toUriString();
+    @Value("${seatgeek.page-size:100}")
+    private int pageSize;
 
-        System.out.println("Calling SeatGeek: " + url.replace(clientId, "CLIENT_ID_REMOVED"));
+    // a metro with more pages than this is crawled up to here and marked truncated
+    @Value("${seatgeek.max-pages:50}")
+    private int maxPages;
 
-        ResponseEntity<String> resp = rest.getForEntity(url, String.class);
-        if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
-            System.err.println("SeatGeek call failed: " + resp.getStatusCode());
-            return;
-        }
+    @Value("${seatgeek.max-concurrency:2}")
+    private int maxConcurrency;
 
-        try {
-            JsonNode root = mapper.readTree(resp.getBody());
-            JsonNode events = root.path("events");
-            if (!events.isArray()) return;
-
-            for (Iterator<JsonNode> it = events.elements(); it.hasNext(); ) {
-                JsonNode e = it.next();
-                saveOneEventFromSeatGeekNode(e);
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-    }
+    @Value("${seatgeek.requests-per-second:2}")
+    private double requestsPerSecond;
 
-    private void saveOneEventFromSeatGeekNode(JsonNode e) {
-        String sgId = e.path("id").asText(null);
-        if (sgId == null) return;
+    private PagedCrawler crawler;
 
-        Optional<Event> maybeExisting =
-                eventRepository.findByProviderAndExternalId("SEATGEEK", sgId);
+    public SeatGeekService(RestTemplate providerRestTemplate, IngestionMetrics metrics, ResponseArchive archive) {
+        this.rest = providerRestTemplate;
+        this.archive = archive;
+        this.parser = new SeatGeekEventParser(new ObjectMapper(), metrics.parseFailures(name())::increment);
+    }
 
-        Event event = maybeExisting.orElseGet(Event::new);
+    @Override
+    public String name() {
+        return "SEATGEEK";
+    }
 
-        // identity fields
-        event.setProvider("SEATGEEK");
-        event.setExternalId(sgId);
+    @Override
+    public boolean isEnabled() {
+        return clientId != null && !clientId.isBlank();
+    }
 
-        // basic fields
-        event.setTitle(safeText(e.path("title")));
-        event.setUrl(safeText(e.path("url")));
+    @Override
+    public boolean isRegional() {
+        return true;
+    }
 
-        // venue
-        JsonNode venue = e.path("venue");
-        event.setVenueName(safeText(venue.path("name")));
+    // one crawler for all regions, so they share the requests-per-second quota
+    @PostConstruct
+    void initCrawler() {
+        crawler = new PagedCrawler(maxConcurrency, new RateLimiter(requestsPerSecond));
+    }
 
-        JsonNode location = venue.path("location");
-        if (location.hasNonNull("lat")) {
-            event.setLatitude(location.path("lat").asText());
+    @Override
+    public void fetchEvents(Region region, Consumer<Event> sink, IngestionProgress progress) throws Exception {
+        long started = System.currentTimeMillis();
+
+        PagedCrawler.CrawlStats crawl = crawler.crawl(page -> fetchPage(region, page, progress), maxPages, page -> {
+            progress.pageFetched();
+            page.items().forEach(sink);
+        });
+        if (crawl.pagesFailed() > 0) {
+            progress.error("SEATGEEK/" + region + ": " + crawl.pagesFailed() + " of " + crawl.totalPages()
+                    + " pages failed");
         }
-        if (location.hasNonNull("lon")) {
-            event.setLongitude(location.path("lon").asText());
+        if (crawl.totalPages() > maxPages) {
+            progress.truncated("SEATGEEK/" + region + ": " + crawl.totalPages() + " pages, only the first "
+                    + maxPages + " are fetched");
         }
 
-        // dates
-        if (e.hasNonNull("datetime_utc")) {
-            String start = e.path("datetime_utc").asText();
-            event.setStartTime(start);
-            event.setEndTime(Instant.parse(start).plus(Duration.ofHours(2)).toString());
-        }
+        System.out.println("SeatGeek " + region + " crawl: " + crawl.pagesFetched() + "/" + crawl.totalPages()
+                + " pages (" + crawl.pagesFailed() + " failed) in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
 
-        // category
-        JsonNode taxonomies = e.path("taxonomies");
-        if (taxonomies.isArray() && taxonomies.size() > 0) {
-            event.setCategory(safeText(taxonomies.get(0).path("name")));
-        }
+    @Override
+    public int parsePage(InputStream body, Consumer<Event> sink) throws IOException {
+        int[] count = {0};
+        parser.parse(body, event -> {
+            sink.accept(event);
+            count[0]++;
+        });
+        return count[0];
+    }
 
-        // genre
-        JsonNode performers = e.path("performers");
-        if (performers.isArray() && performers.size() > 0) {
-            event.setGenre(safeText(performers.get(0).path("type")));
-        }
+    PagedCrawler.Page<Event> fetchPage(Region region, int pageNumber, IngestionProgress progress) throws Exception {
+        UriComponentsBuilder uri = UriComponentsBuilder
+                .fromUriString(baseUrl)
+                .path("/events")
+                .queryParam("client_id", clientId)
+                .queryParam("venue.city", region.city())
+                .queryParam("per_page", pageSize)
+                // SeatGeek pages are numbered from 1
+                .queryParam("page", pageNumber + 1);
+        if (region.stateCode() != null) uri.queryParam("venue.state", region.stateCode());
+        String url = uri.build().toUriString();
 
-        eventRepository.save(event);
-    }
+        System.out.println("Calling SeatGeek: " + url.replace(clientId, "CLIENT_ID_REMOVED"));
+
+        List<Event> events = new ArrayList<>(pageSize);
+        Integer totalPages = rest.execute(url, HttpMethod.GET, null, response ->
+                archive.record(name(), region, response.getBody(), body -> parser.parse(body, events::add, progress::eventSkipped)));
 
-    private String safeText(JsonNode node) {
-        return (node == null || node.isNull() || node.isMissingNode()) ? null : node.asText(null);
+        return new PagedCrawler.Page<>(pageNumber, totalPages != null ? totalPages : 1, events);
     }
 }
-*/
@@ -0,0 +1,212 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.model.Event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.*;
+import java.util.function.Consumer;
+
+/**
+ * Streams a Ticketmaster discovery response straight off the wire.
+ *
+ * Only one event object is materialized as a tree at a time, so heap use
+ * stays flat however large the page is.
+ */
+public class TicketmasterEventParser {
+
+    private final ObjectMapper mapper;
+    private final Runnable onParseFailure;
+
+    public TicketmasterEventParser(ObjectMapper mapper) {
+        this(mapper, () -> {});
+    }
+
+    /**
+     * @param onParseFailure called for every event or field that can't be parsed
+     */
+    public TicketmasterEventParser(ObjectMapper mapper, Runnable onParseFailure) {
+        this.mapper = mapper;
+        this.onParseFailure = onParseFailure;
+    }
+
+    public int parse(InputStream body, Consumer<Event> sink) throws IOException {
+        return parse(body, sink, () -> {});
+    }
+
+    /**
+     * Parses one discovery page, handing each mapped event to the sink.
+     *
+     * @param onSkipped called for every event that can't be mapped and so never
+     *                  reaches the sink
+     * @return page.totalPages from the response, or 1 if it is missing
+     */
+    public int parse(InputStream body, Consumer<Event> sink, Runnable onSkipped) throws IOException {
+        int totalPages = 1;
+
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return totalPages;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                if ("_embedded".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    readEmbedded(parser, sink, onSkipped);
+                } else if ("page".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    JsonNode page = mapper.readTree(parser);
+                    totalPages = page.path("totalPages").asInt(1);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return totalPages;
+    }
+
+    private void readEmbedded(JsonParser parser, Consumer<Event> sink, Runnable onSkipped) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+
+            if ("events".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    JsonNode node = mapper.readTree(parser);
+                    Event event;
+                    try {
+                        event = map(node);
+                    } catch (RuntimeException ex) {
+                        // one malformed event shouldn't cost the rest of the page
+                        onParseFailure.run();
+                        onSkipped.run();
+                        System.err.println("Skipping unparseable Ticketmaster event " + node.path("id").asText() + ": " + ex);
+                        continue;
+                    }
+                    if (event != null) sink.accept(event);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Maps a single discovery event object; returns null if it has no id.
+     */
+    public Event map(JsonNode e) {
+        String tmId = e.path("id").asText(null);
+        if (tmId == null) return null;
+
+        Event event = new Event();
+
+        // identity fields
+        event.setProvider("TICKETMASTER");
+        event.setExternalId(tmId);
+
+        // keep temporarily for backward compatibility
+        event.setTicketmasterId(tmId);
+
+        // basic fields
+        event.setTitle(safeText(e.path("name")));
+        event.setUrl(safeText(e.path("url")));
+
+        JsonNode classifications = e.path("classifications");
+        if (classifications.isArray() && classifications.size() > 0) {
+            JsonNode c = classifications.get(0);
+            event.setCategory(safeText(c.path("segment").path("name")));
+            event.setGenre(safeText(c.path("genre").path("name")));
+        }
+
+        JsonNode venues = e.path("_embedded").path("venues");
+        if (venues.isArray() && venues.size() > 0) {
+            JsonNode v = venues.get(0);
+            event.setVenueName(safeText(v.path("name")));
+
+            JsonNode loc = v.path("location");
+            if (loc != null && !loc.isMissingNode() && !loc.isNull()) {
+                if (loc.hasNonNull("latitude")) {
+                    event.setLatitude(parseCoordinate(loc.path("latitude").asText(null)));
+                }
+                if (loc.hasNonNull("longitude")) {
+                    event.setLongitude(parseCoordinate(loc.path("longitude").asText(null)));
+                }
+            }
+        }
+
+        JsonNode startNode = e.path("dates").path("start");
+        Instant startInstant = null;
+
+        if (startNode.hasNonNull("dateTime")) {
+            String dt = startNode.path("dateTime").asText(null);
+            if (dt != null) {
+                try {
+                    startInstant = Instant.parse(dt);
+                } catch (Exception ex) {
+                    onParseFailure.run();
+                    System.err.println("Unparseable Ticketmaster start time for " + tmId + ": " + dt);
+                }
+            }
+        } else if (startNode.hasNonNull("localDate")) {
+            String localDate = startNode.path("localDate").asText(null);
+            String localTime = startNode.hasNonNull("localTime")
+                    ? startNode.path("localTime").asText("00:00:00")
+                    : "00:00:00";
+            String tz = e.path("dates").path("timezone").asText("UTC");
+
+            if (localDate != null) {
+                try {
+                    LocalDate ld = LocalDate.parse(localDate);
+                    LocalTime lt = LocalTime.parse(localTime);
+                    ZonedDateTime zdt = ZonedDateTime.of(ld, lt, ZoneId.of(tz));
+                    startInstant = zdt.toInstant();
+                } catch (Exception ex) {
+                    onParseFailure.run();
+                    System.err.println("Unparseable Ticketmaster local start for " + tmId + ": "
+                            + localDate + " " + localTime + " " + tz);
+                }
+            }
+        }
+
+        if (startInstant != null) {
+            event.setStartTime(startInstant);
+
+            Instant endInstant = null;
+            JsonNode endNode = e.path("dates").path("end");
+            if (endNode != null && endNode.hasNonNull("dateTime")) {
+                try {
+                    endInstant = Instant.parse(endNode.path("dateTime").asText());
+                } catch (Exception ignore) {}
+            }
+
+            if (endInstant == null) {
+                endInstant = startInstant.plus(Duration.ofHours(2));
+            }
+
+            event.setEndTime(endInstant);
+        } else {
+            event.setStartTime(null);
+            event.setEndTime(null);
+        }
+
+        return event;
+    }
+
+    // Discovery API sends coordinates as strings, e.g. "30.2672"
+    private Double parseCoordinate(String raw) {
+        if (raw == null || raw.isBlank()) return null;
+        try {
+            return Double.valueOf(raw);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private String safeText(JsonNode node) {
+        return (node == null || node.isNull() || node.isMissingNode()) ? null : node.asText(null);
+    }
+}
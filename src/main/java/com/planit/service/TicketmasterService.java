@@ -1,28 +1,33 @@
 package com.planit.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.ingest.EventProvider;
+import com.planit.ingest.IngestionMetrics;
+import com.planit.ingest.IngestionProgress;
+import com.planit.ingest.PagedCrawler;
+import com.planit.ingest.RateLimiter;
+import com.planit.ingest.Region;
+import com.planit.ingest.ResponseArchive;
 import com.planit.model.Event;
-import com.planit.repository.EventRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.time.*;
-import java.util.Iterator;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Service
-public class TicketmasterService {
+public class TicketmasterService implements EventProvider {
 
-    private final RestTemplate rest = new RestTemplate();
-    private final ObjectMapper mapper = new ObjectMapper();
-
-    @Autowired
-    private EventRepository eventRepository;
+    private final RestTemplate rest;
+    private final TicketmasterEventParser parser;
+    private final ResponseArchive archive;
 
     @Value("${ticketmaster.base.url}")
     private String baseUrl;
@@ -30,142 +35,97 @@ public class TicketmasterService {
     @Value("${ticketmaster.api.key}")
     private String tmApiKey;
 
-    // Call this from your controller /fetch-events
-    public void fetchAndSaveEvents() {
+    // Discovery API allows up to 200 events per page
+    @Value("${ticketmaster.page-size:200}")
+    private int pageSize;
 
-        // Build URL safely (encodes params)
-        String url = UriComponentsBuilder
-                .fromUriString(baseUrl)
-                .queryParam("apikey", tmApiKey)
-                .queryParam("city", "Austin")          // example param - change or remove as needed
-                .queryParam("size", 50)                // optional: how many events per page
-                .queryParam("countryCode", "US")       // optional
-                .build()
-                .toUriString();
+    // Deep-paging cap: the API won't return anything past the first 1000 results
+    @Value("${ticketmaster.max-results:1000}")
+    private int maxResults;
 
-        System.out.println("Calling TM: " + url.replace(tmApiKey, "API_KEY_REMOVED"));
+    @Value("${ticketmaster.max-concurrency:4}")
+    private int maxConcurrency;
 
-        ResponseEntity<String> resp = rest.getForEntity(url, String.class);
-        if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
-            // log and return
-            System.err.println("Ticketmaster call failed: " + resp.getStatusCode());
-            return;
-        }
+    // Default Discovery API quota is 5 requests per second
+    @Value("${ticketmaster.requests-per-second:5}")
+    private double requestsPerSecond;
 
-        try {
-            JsonNode root = mapper.readTree(resp.getBody());
-            JsonNode events = root.path("_embedded").path("events");
-            if (!events.isArray()) return;
-
-            for (Iterator<JsonNode> it = events.elements(); it.hasNext(); ) {
-                JsonNode e = it.next();
-                saveOneEventFromTmNode(e);
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            // log properly
-        }
-    }
+    private PagedCrawler crawler;
 
-    private void saveOneEventFromTmNode(JsonNode e) {
-        String tmId = e.path("id").asText(null);
-        if (tmId == null) return;
+    public TicketmasterService(RestTemplate providerRestTemplate, IngestionMetrics metrics, ResponseArchive archive) {
+        this.rest = providerRestTemplate;
+        this.archive = archive;
+        this.parser = new TicketmasterEventParser(new ObjectMapper(), metrics.parseFailures(name())::increment);
+    }
 
-        Optional<Event> maybeExisting =
-                eventRepository.findByProviderAndExternalId("TICKETMASTER", tmId);
+    @Override
+    public String name() {
+        return "TICKETMASTER";
+    }
 
-        Event event = maybeExisting.orElseGet(Event::new);
+    @Override
+    public boolean isRegional() {
+        return true;
+    }
 
-        // identity fields
-        event.setProvider("TICKETMASTER");
-        event.setExternalId(tmId);
+    @Override
+    public void fetchEvents(Region region, Consumer<Event> sink, IngestionProgress progress) throws Exception {
+        long started = System.currentTimeMillis();
+
+        PagedCrawler.CrawlStats crawl = crawler.crawl(page -> fetchPage(region, page, progress), maxPages(), page -> {
+            progress.pageFetched();
+            page.items().forEach(sink);
+        });
+        if (crawl.pagesFailed() > 0) {
+            progress.error("TICKETMASTER/" + region + ": " + crawl.pagesFailed() + " of " + crawl.totalPages()
+                    + " pages failed");
+        }
+        if (crawl.totalPages() > maxPages()) {
+            // the rest of the listing is out of reach, so this crawl can't say what's gone
+            progress.truncated("TICKETMASTER/" + region + ": " + crawl.totalPages() + " pages, only the first "
+                    + maxPages() + " can be fetched");
+        }
 
-        // keep temporarily for backward compatibility
-        event.setTicketmasterId(tmId);
+        System.out.println("Ticketmaster " + region + " crawl: " + crawl.pagesFetched() + "/" + crawl.totalPages()
+                + " pages (" + crawl.pagesFailed() + " failed) in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
 
-        // basic fields
-        event.setTitle(safeText(e.path("name")));
-        event.setUrl(safeText(e.path("url")));
+    @Override
+    public int parsePage(InputStream body, Consumer<Event> sink) throws IOException {
+        return parser.parse(body, sink);
+    }
 
-        JsonNode classifications = e.path("classifications");
-        if (classifications.isArray() && classifications.size() > 0) {
-            JsonNode c = classifications.get(0);
-            event.setCategory(safeText(c.path("segment").path("name")));
-            event.setGenre(safeText(c.path("genre").path("name")));
-        }
+    // one crawler for all regions, so they share the requests-per-second quota
+    @PostConstruct
+    void initCrawler() {
+        crawler = new PagedCrawler(maxConcurrency, new RateLimiter(requestsPerSecond));
+    }
 
-        JsonNode venues = e.path("_embedded").path("venues");
-        if (venues.isArray() && venues.size() > 0) {
-            JsonNode v = venues.get(0);
-            event.setVenueName(safeText(v.path("name")));
-
-            JsonNode loc = v.path("location");
-            if (loc != null && !loc.isMissingNode() && !loc.isNull()) {
-                if (loc.hasNonNull("latitude")) {
-                    event.setLatitude(loc.path("latitude").asText(null));
-                }
-                if (loc.hasNonNull("longitude")) {
-                    event.setLongitude(loc.path("longitude").asText(null));
-                }
-            }
-        }
+    // Discovery API refuses requests where size * page >= maxResults
+    int maxPages() {
+        return Math.max(1, (maxResults + pageSize - 1) / pageSize);
+    }
 
-        JsonNode startNode = e.path("dates").path("start");
-        Instant startInstant = null;
-
-        if (startNode.hasNonNull("dateTime")) {
-            String dt = startNode.path("dateTime").asText(null);
-            if (dt != null) {
-                try {
-                    startInstant = Instant.parse(dt);
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
-            }
-        } else if (startNode.hasNonNull("localDate")) {
-            String localDate = startNode.path("localDate").asText(null);
-            String localTime = startNode.hasNonNull("localTime")
-                    ? startNode.path("localTime").asText("00:00:00")
-                    : "00:00:00";
-            String tz = e.path("dates").path("timezone").asText("UTC");
-
-            if (localDate != null) {
-                try {
-                    LocalDate ld = LocalDate.parse(localDate);
-                    LocalTime lt = LocalTime.parse(localTime);
-                    ZonedDateTime zdt = ZonedDateTime.of(ld, lt, ZoneId.of(tz));
-                    startInstant = zdt.toInstant();
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
-            }
-        }
+    PagedCrawler.Page<Event> fetchPage(Region region, int pageNumber, IngestionProgress progress) throws Exception {
+        // Build URL safely (encodes params)
+        UriComponentsBuilder uri = UriComponentsBuilder
+                .fromUriString(baseUrl)
+                .queryParam("apikey", tmApiKey)
+                .queryParam("city", region.city())
+                .queryParam("size", pageSize)
+                .queryParam("page", pageNumber);
+        if (region.stateCode() != null) uri.queryParam("stateCode", region.stateCode());
+        if (region.countryCode() != null) uri.queryParam("countryCode", region.countryCode());
+        String url = uri.build().toUriString();
 
-        if (startInstant != null) {
-            event.setStartTime(startInstant.toString());
-
-            Instant endInstant = null;
-            JsonNode endNode = e.path("dates").path("end");
-            if (endNode != null && endNode.hasNonNull("dateTime")) {
-                try {
-                    endInstant = Instant.parse(endNode.path("dateTime").asText());
-                } catch (Exception ignore) {}
-            }
-
-            if (endInstant == null) {
-                endInstant = startInstant.plus(Duration.ofHours(2));
-            }
-
-            event.setEndTime(endInstant.toString());
-        } else {
-            event.setStartTime(null);
-            event.setEndTime(null);
-        }
+        System.out.println("Calling TM: " + url.replace(tmApiKey, "API_KEY_REMOVED"));
 
-        eventRepository.save(event);
-    }
+        // Non-2xx responses are thrown by the default error handler before we get here
+        List<Event> events = new ArrayList<>(pageSize);
+        Integer totalPages = rest.execute(url, HttpMethod.GET, null, response ->
+                archive.record(name(), region, response.getBody(), body -> parser.parse(body, events::add, progress::eventSkipped)));
 
-    private String safeText(JsonNode node) {
-        return (node == null || node.isNull() || node.isMissingNode()) ? null : node.asText(null);
+        return new PagedCrawler.Page<>(pageNumber, totalPages != null ? totalPages : 1, events);
     }
 }
@@ -0,0 +1,433 @@
+package com.planit.store;
+
+import com.planit.model.Event;
+import com.planit.repository.EventCursor;
+import com.planit.repository.EventFilter;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Immutable, column-oriented copy of the served events for answering
+ * GET /api/events without the database.
+ *
+ * Rows are stored in (startTime, id) order, events without a start time
+ * last, like the JPA query orders them. Start and end times are epoch-second
+ * arrays (nanos only kept if any row has them); category, genre, provider,
+ * venue and region are dictionary codes; each category and genre has a
+ * bitmap of its rows. A query binary-searches the time window and cursor
+ * down to a row range, intersects the category and genre bitmaps, and only
+ * materializes {@link Event}s for the rows it returns.
+ *
+ * Changes produce a new store ({@link #withChanges}) that shares nothing
+ * mutable with the old one, so readers never need a lock.
+ */
+public final class CompactEventStore {
+
+    // sorts after every real time, like NULLS LAST
+    private static final long NO_TIME = Long.MAX_VALUE;
+    private static final int NONE = -1;
+
+    private final int size;
+    // rows [0, timed) have a start time
+    private final int timed;
+
+    private final long[] ids;
+    private final long[] startSeconds;
+    private final int[] startNanos; // null if every start is a whole second
+    private final long[] endSeconds;
+    private final int[] endNanos;   // null if every end is a whole second
+    private final double[] latitudes;  // NaN when missing
+    private final double[] longitudes;
+
+    private final int[] categories;
+    private final int[] genres;
+    private final int[] providers;
+    private final int[] venues;
+    private final int[] regions;
+
+    private final String[] titles;
+    private final String[] urls;
+    private final String[] externalIds;
+    private final String[] ticketmasterIds;
+
+    private final Dictionary categoryDict;
+    private final Dictionary genreDict;
+    private final Dictionary providerDict;
+    private final Dictionary venueDict;
+    private final Dictionary regionDict;
+
+    // per category/genre code, the rows having it
+    private final BitSet[] rowsByCategory;
+    private final BitSet[] rowsByGenre;
+
+    private volatile long estimatedBytes = -1;
+
+    private CompactEventStore(Builder b) {
+        size = b.size;
+        ids = Arrays.copyOf(b.ids, size);
+        startSeconds = Arrays.copyOf(b.startSeconds, size);
+        startNanos = b.anyStartNanos ? Arrays.copyOf(b.startNanos, size) : null;
+        endSeconds = Arrays.copyOf(b.endSeconds, size);
+        endNanos = b.anyEndNanos ? Arrays.copyOf(b.endNanos, size) : null;
+        latitudes = Arrays.copyOf(b.latitudes, size);
+        longitudes = Arrays.copyOf(b.longitudes, size);
+        categories = Arrays.copyOf(b.categories, size);
+        genres = Arrays.copyOf(b.genres, size);
+        providers = Arrays.copyOf(b.providers, size);
+        venues = Arrays.copyOf(b.venues, size);
+        regions = Arrays.copyOf(b.regions, size);
+        titles = Arrays.copyOf(b.titles, size);
+        urls = Arrays.copyOf(b.urls, size);
+        externalIds = Arrays.copyOf(b.externalIds, size);
+        ticketmasterIds = Arrays.copyOf(b.ticketmasterIds, size);
+
+        categoryDict = b.categoryDict.freeze();
+        genreDict = b.genreDict.freeze();
+        providerDict = b.providerDict.freeze();
+        venueDict = b.venueDict.freeze();
+        regionDict = b.regionDict.freeze();
+        rowsByCategory = bitmaps(categories, categoryDict.size());
+        rowsByGenre = bitmaps(genres, genreDict.size());
+
+        int t = size;
+        while (t > 0 && startSeconds[t - 1] == NO_TIME) t--;
+        timed = t;
+    }
+
+    public static CompactEventStore of(Collection<Event> events) {
+        List<Event> sorted = new ArrayList<>(events);
+        sorted.sort(ORDER);
+        Builder builder = new Builder(sorted.size());
+        sorted.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * A new store without {@code removedIds} and with {@code upserted}
+     * replacing any rows with the same id. Costs one pass over the existing
+     * rows; nothing is re-read from the database.
+     */
+    public CompactEventStore withChanges(Collection<Long> removedIds, Collection<Event> upserted) {
+        Set<Long> dropped = new HashSet<>(removedIds);
+        upserted.forEach(e -> dropped.add(e.getId()));
+        List<Event> added = new ArrayList<>(upserted);
+        added.sort(ORDER);
+
+        Builder builder = new Builder(size + added.size());
+        int next = 0;
+        for (int row = 0; row < size; row++) {
+            if (dropped.contains(ids[row])) continue;
+            // merge: new rows that sort before this one go first
+            while (next < added.size() && compare(added.get(next), row) < 0) {
+                builder.add(added.get(next++));
+            }
+            builder.copy(this, row);
+        }
+        while (next < added.size()) {
+            builder.add(added.get(next++));
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Same result as {@code EventQueryService.find} on the database: every
+     * match when {@code limit} is null (events without a start time last),
+     * otherwise a keyset page of timed events after {@code after}.
+     *
+     * @param limit page size, or null for every match
+     */
+    public List<Event> query(EventFilter filter, EventCursor after, Integer limit) {
+        boolean paged = limit != null || after != null;
+        int from = 0;
+        // a time bound, like a page, excludes events without a start time
+        int to = paged || filter.hasWindow() ? timed : size;
+
+        if (filter.from() != null) {
+            from = Math.max(from, lowerBound(filter.from(), Long.MIN_VALUE));
+        }
+        if (filter.to() != null) {
+            to = Math.min(to, lowerBound(filter.to(), Long.MIN_VALUE));
+        }
+        if (after != null) {
+            // first row with (start, id) > (after.start, after.id)
+            from = Math.max(from, lowerBound(after.startTime(), after.id() + 1));
+        }
+
+        BitSet mask = null;
+        if (filter.hasCategories()) {
+            mask = union(rowsByCategory, categoryDict, filter.categories());
+        }
+        if (filter.hasGenres()) {
+            BitSet byGenre = union(rowsByGenre, genreDict, filter.genres());
+            if (mask == null) mask = byGenre;
+            else mask.and(byGenre);
+        }
+
+        int max = limit != null ? limit : Integer.MAX_VALUE;
+        List<Event> result = new ArrayList<>(Math.min(max, Math.max(0, to - from)));
+        if (mask == null) {
+            for (int row = from; row < to && result.size() < max; row++) {
+                result.add(event(row));
+            }
+        } else {
+            for (int row = mask.nextSetBit(from); row >= 0 && row < to && result.size() < max;
+                 row = mask.nextSetBit(row + 1)) {
+                result.add(event(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rough retained size: the arrays, bitmaps and the strings they point
+     * to (strings shared through the dictionaries counted once).
+     */
+    public long estimatedBytes() {
+        if (estimatedBytes < 0) estimatedBytes = measure();
+        return estimatedBytes;
+    }
+
+    private long measure() {
+        long bytes = 0;
+        bytes += 8L * size * 5;                  // ids, start/end seconds, latitude, longitude
+        bytes += 4L * size * 5;                  // dictionary codes
+        bytes += 4L * size * 4;                  // string references
+        if (startNanos != null) bytes += 4L * size;
+        if (endNanos != null) bytes += 4L * size;
+        for (int row = 0; row < size; row++) {
+            bytes += stringBytes(titles[row]) + stringBytes(urls[row])
+                    + stringBytes(externalIds[row]) + stringBytes(ticketmasterIds[row]);
+        }
+        for (BitSet rows : rowsByCategory) bytes += rows.size() / 8;
+        for (BitSet rows : rowsByGenre) bytes += rows.size() / 8;
+        bytes += categoryDict.bytes() + genreDict.bytes() + providerDict.bytes() + venueDict.bytes()
+                + regionDict.bytes();
+        return bytes;
+    }
+
+    private Event event(int row) {
+        Event event = new Event();
+        event.setId(ids[row]);
+        event.setTicketmasterId(ticketmasterIds[row]);
+        event.setExternalId(externalIds[row]);
+        event.setProvider(providerDict.value(providers[row]));
+        event.setTitle(titles[row]);
+        event.setCategory(categoryDict.value(categories[row]));
+        event.setGenre(genreDict.value(genres[row]));
+        event.setStartTime(instant(startSeconds, startNanos, row));
+        event.setEndTime(instant(endSeconds, endNanos, row));
+        event.setUrl(urls[row]);
+        event.setVenueName(venueDict.value(venues[row]));
+        event.setLatitude(Double.isNaN(latitudes[row]) ? null : latitudes[row]);
+        event.setLongitude(Double.isNaN(longitudes[row]) ? null : longitudes[row]);
+        event.setRegion(regionDict.value(regions[row]));
+        return event;
+    }
+
+    // first timed row whose (start, id) >= (time, id)
+    private int lowerBound(Instant time, long id) {
+        int lo = 0, hi = timed;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, time.getEpochSecond(), time.getNano(), id) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int compare(int row, long seconds, int nanos, long id) {
+        int c = Long.compare(startSeconds[row], seconds);
+        if (c == 0) c = Integer.compare(startNanos != null ? startNanos[row] : 0, nanos);
+        if (c == 0) c = Long.compare(ids[row], id);
+        return c;
+    }
+
+    private int compare(Event event, int row) {
+        Instant start = event.getStartTime();
+        if (start == null) {
+            return startSeconds[row] == NO_TIME ? Long.compare(event.getId(), ids[row]) : 1;
+        }
+        if (startSeconds[row] == NO_TIME) return -1;
+        return -compare(row, start.getEpochSecond(), start.getNano(), event.getId());
+    }
+
+    private BitSet union(BitSet[] bitmaps, Dictionary dictionary, List<String> values) {
+        BitSet rows = new BitSet(size);
+        for (String value : values) {
+            int code = dictionary.code(value);
+            if (code != NONE) rows.or(bitmaps[code]);
+        }
+        return rows;
+    }
+
+    private static BitSet[] bitmaps(int[] codes, int distinct) {
+        BitSet[] bitmaps = new BitSet[distinct];
+        for (int i = 0; i < distinct; i++) bitmaps[i] = new BitSet(codes.length);
+        for (int row = 0; row < codes.length; row++) {
+            if (codes[row] != NONE) bitmaps[codes[row]].set(row);
+        }
+        return bitmaps;
+    }
+
+    private static Instant instant(long[] seconds, int[] nanos, int row) {
+        if (seconds[row] == NO_TIME) return null;
+        return Instant.ofEpochSecond(seconds[row], nanos != null ? nanos[row] : 0);
+    }
+
+    // compact strings: header + array header + one byte per Latin-1 char
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 40 + s.length();
+    }
+
+    private static final Comparator<Event> ORDER = Comparator
+            .comparing(Event::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Event::getId);
+
+    /**
+     * Interned values of one column; code {@link #NONE} is null.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private String[] frozen;
+
+        int encode(String value) {
+            if (value == null) return NONE;
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        int code(String value) {
+            return codes.getOrDefault(value, NONE);
+        }
+
+        String value(int code) {
+            return code == NONE ? null : frozen[code];
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        Dictionary freeze() {
+            frozen = values.toArray(new String[0]);
+            return this;
+        }
+
+        long bytes() {
+            long bytes = 0;
+            for (String value : values) bytes += stringBytes(value) + 48; // + map entry
+            return bytes;
+        }
+    }
+
+    private static final class Builder {
+
+        private int size;
+        private long[] ids;
+        private long[] startSeconds;
+        private int[] startNanos;
+        private long[] endSeconds;
+        private int[] endNanos;
+        private double[] latitudes;
+        private double[] longitudes;
+        private int[] categories;
+        private int[] genres;
+        private int[] providers;
+        private int[] venues;
+        private int[] regions;
+        private String[] titles;
+        private String[] urls;
+        private String[] externalIds;
+        private String[] ticketmasterIds;
+        private boolean anyStartNanos;
+        private boolean anyEndNanos;
+
+        private final Dictionary categoryDict = new Dictionary();
+        private final Dictionary genreDict = new Dictionary();
+        private final Dictionary providerDict = new Dictionary();
+        private final Dictionary venueDict = new Dictionary();
+        private final Dictionary regionDict = new Dictionary();
+
+        Builder(int capacity) {
+            int n = Math.max(capacity, 1);
+            ids = new long[n];
+            startSeconds = new long[n];
+            startNanos = new int[n];
+            endSeconds = new long[n];
+            endNanos = new int[n];
+            latitudes = new double[n];
+            longitudes = new double[n];
+            categories = new int[n];
+            genres = new int[n];
+            providers = new int[n];
+            venues = new int[n];
+            regions = new int[n];
+            titles = new String[n];
+            urls = new String[n];
+            externalIds = new String[n];
+            ticketmasterIds = new String[n];
+        }
+
+        void add(Event e) {
+            int row = size++;
+            ids[row] = e.getId();
+            setTimes(row, e.getStartTime(), e.getEndTime());
+            latitudes[row] = e.getLatitude() != null ? e.getLatitude() : Double.NaN;
+            longitudes[row] = e.getLongitude() != null ? e.getLongitude() : Double.NaN;
+            categories[row] = categoryDict.encode(e.getCategory());
+            genres[row] = genreDict.encode(e.getGenre());
+            providers[row] = providerDict.encode(e.getProvider());
+            venues[row] = venueDict.encode(e.getVenueName());
+            regions[row] = regionDict.encode(e.getRegion());
+            titles[row] = e.getTitle();
+            urls[row] = e.getUrl();
+            externalIds[row] = e.getExternalId();
+            ticketmasterIds[row] = e.getTicketmasterId();
+        }
+
+        void copy(CompactEventStore from, int fromRow) {
+            int row = size++;
+            ids[row] = from.ids[fromRow];
+            startSeconds[row] = from.startSeconds[fromRow];
+            startNanos[row] = from.startNanos != null ? from.startNanos[fromRow] : 0;
+            endSeconds[row] = from.endSeconds[fromRow];
+            endNanos[row] = from.endNanos != null ? from.endNanos[fromRow] : 0;
+            anyStartNanos |= startNanos[row] != 0;
+            anyEndNanos |= endNanos[row] != 0;
+            latitudes[row] = from.latitudes[fromRow];
+            longitudes[row] = from.longitudes[fromRow];
+            // codes differ between stores: re-encode through this store's dictionaries
+            categories[row] = categoryDict.encode(from.categoryDict.value(from.categories[fromRow]));
+            genres[row] = genreDict.encode(from.genreDict.value(from.genres[fromRow]));
+            providers[row] = providerDict.encode(from.providerDict.value(from.providers[fromRow]));
+            venues[row] = venueDict.encode(from.venueDict.value(from.venues[fromRow]));
+            regions[row] = regionDict.encode(from.regionDict.value(from.regions[fromRow]));
+            titles[row] = from.titles[fromRow];
+            urls[row] = from.urls[fromRow];
+            externalIds[row] = from.externalIds[fromRow];
+            ticketmasterIds[row] = from.ticketmasterIds[fromRow];
+        }
+
+        private void setTimes(int row, Instant start, Instant end) {
+            startSeconds[row] = start != null ? start.getEpochSecond() : NO_TIME;
+            startNanos[row] = start != null ? start.getNano() : 0;
+            endSeconds[row] = end != null ? end.getEpochSecond() : NO_TIME;
+            endNanos[row] = end != null ? end.getNano() : 0;
+            anyStartNanos |= startNanos[row] != 0;
+            anyEndNanos |= endNanos[row] != 0;
+        }
+
+        CompactEventStore build() {
+            return new CompactEventStore(this);
+        }
+    }
+}
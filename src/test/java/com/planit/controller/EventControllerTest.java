@@ -0,0 +1,164 @@
+package com.planit.controller;
+
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.model.Event;
+import com.planit.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Conditional GET and compression on the cached read endpoints. Thirty
+ * Music events serialize well past events.gzip-min-bytes; the one Comedy
+ * event stays under it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EventControllerTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void seed() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        eventRepository.deleteAllInBatch();
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            events.add(event("sg-" + i, "Music", "Show " + i, Instant.parse("2026-03-01T02:00:00Z").plusSeconds(3600L * i)));
+        }
+        events.add(event("sg-comedy", "Comedy", "Open mic", Instant.parse("2026-03-02T02:00:00Z")));
+        publish(eventRepository.saveAll(events));
+    }
+
+    @Test
+    void revalidatingWithTheETagGetsA304() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get("/api/events")).andReturn().getResponse();
+
+        assertEquals(200, first.getStatus());
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertNotNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("no-cache", first.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertTrue(first.getHeaders(HttpHeaders.VARY).stream().anyMatch(v -> v.contains(HttpHeaders.ACCEPT_ENCODING)));
+
+        MockHttpServletResponse second = mockMvc.perform(get("/api/events")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn().getResponse();
+
+        assertEquals(304, second.getStatus());
+        assertEquals(eTag, second.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, second.getContentLength());
+    }
+
+    @Test
+    void aCommittedChangeIssuesANewETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/events")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        List<Event> added = eventRepository.saveAll(List.of(
+                event("sg-new", "Music", "Late addition", Instant.parse("2026-03-05T02:00:00Z"))));
+        publish(added);
+        MockHttpServletResponse response = mockMvc.perform(get("/api/events")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertNotEquals(eTag, response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsString().contains("Late addition"));
+    }
+
+    @Test
+    void largeBodiesAreGzippedAndTaggedAsSuch() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/events")).andReturn().getResponse();
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/events")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")).andReturn().getResponse();
+
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzipped.getHeader(HttpHeaders.ETAG).endsWith("-gz\""));
+        assertNotEquals(plain.getHeader(HttpHeaders.ETAG), gzipped.getHeader(HttpHeaders.ETAG));
+        assertEquals(plain.getContentAsString(), gunzip(gzipped.getContentAsByteArray()));
+
+        MockHttpServletResponse revalidated = mockMvc.perform(get("/api/events")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, gzipped.getHeader(HttpHeaders.ETAG))).andReturn().getResponse();
+        assertEquals(304, revalidated.getStatus());
+    }
+
+    @Test
+    void smallBodiesGoOutPlainUnderThePlainTag() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/events")
+                .param("category", "Comedy")).andReturn().getResponse();
+        MockHttpServletResponse acceptsGzip = mockMvc.perform(get("/api/events")
+                .param("category", "Comedy")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn().getResponse();
+
+        assertNull(acceptsGzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(plain.getHeader(HttpHeaders.ETAG), acceptsGzip.getHeader(HttpHeaders.ETAG));
+        assertFalse(acceptsGzip.getHeader(HttpHeaders.ETAG).endsWith("-gz\""));
+        assertTrue(acceptsGzip.getContentAsString().contains("Open mic"));
+    }
+
+    @Test
+    void calendarFeedRevalidatesLikeTheEventList() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get("/api/events.ics")
+                .param("category", "Comedy")).andReturn().getResponse();
+
+        assertEquals(200, first.getStatus());
+        assertTrue(first.getContentType().startsWith("text/calendar"));
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+        assertFalse(eTag.endsWith("-gz\""));
+
+        MockHttpServletResponse second = mockMvc.perform(get("/api/events.ics")
+                .param("category", "Comedy")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn().getResponse();
+
+        assertEquals(304, second.getStatus());
+    }
+
+    private void publish(List<Event> inserted) {
+        eventPublisher.publishEvent(new EventsChangedEvent("SEATGEEK",
+                inserted.stream().map(Event::getId).toList(), List.of(), List.of()));
+    }
+
+    private static Event event(String externalId, String category, String title, Instant start) {
+        Event event = new Event();
+        event.setProvider("SEATGEEK");
+        event.setExternalId(externalId);
+        event.setCategory(category);
+        event.setTitle(title);
+        event.setStartTime(start);
+        return event;
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
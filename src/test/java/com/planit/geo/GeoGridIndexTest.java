@@ -0,0 +1,110 @@
+package com.planit.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoGridIndexTest {
+
+    private record Place(long id, double lat, double lon) {}
+
+    private static final double[][] CENTERS = {
+            {30.2672, -97.7431},  // Austin
+            {64.8378, -147.7164}, // Fairbanks
+            {-33.8688, 151.2093}, // Sydney
+            {0.0, 179.99},        // on the antimeridian
+    };
+
+    private static final double[] RADII_KM = {0.5, 3, 10, 25, 80, 300};
+
+    @Test
+    void radiusSearchMatchesBruteForce() {
+        Random random = new Random(12);
+        List<Place> places = scatter(random, 20_000);
+
+        GeoGridIndex<Place> index = new GeoGridIndex<>(0.05);
+        places.forEach(p -> index.put(p.id(), p.lat(), p.lon(), p));
+
+        for (double[] center : CENTERS) {
+            for (double radius : RADII_KM) {
+                List<Long> expected = bruteForce(places, center[0], center[1], radius);
+                List<Long> actual = index.within(center[0], center[1], radius, p -> true, Integer.MAX_VALUE)
+                        .stream().map(GeoGridIndex.Hit::id).toList();
+
+                assertEquals(expected, actual, "center " + Arrays.toString(center) + " radius " + radius);
+            }
+        }
+    }
+
+    @Test
+    void removeAndReplaceAreReflectedInResults() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(0.05);
+        index.put(1, 30.2672, -97.7431, "downtown");
+        index.put(2, 30.2849, -97.7341, "campus");
+
+        assertEquals(List.of(1L, 2L), ids(index.within(30.2672, -97.7431, 5, v -> true, 10)));
+
+        index.remove(1);
+        // moved out of range
+        index.put(2, 40.7128, -74.0060, "new york");
+
+        assertTrue(index.within(30.2672, -97.7431, 5, v -> true, 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void coveringCellsContainEveryPointInRadius() {
+        Random random = new Random(7);
+        List<Place> places = scatter(random, 20_000);
+
+        for (double[] center : CENTERS) {
+            for (double radius : RADII_KM) {
+                Set<String> cells = GeoHash.coveringCells(center[0], center[1], radius);
+                for (long id : bruteForce(places, center[0], center[1], radius)) {
+                    Place p = places.get((int) id);
+                    String hash = GeoHash.encode(p.lat(), p.lon(), GeoHash.STORED_PRECISION);
+                    assertTrue(cells.stream().anyMatch(hash::startsWith),
+                            "point " + p + " missed by cells " + cells + " for radius " + radius);
+                }
+            }
+        }
+    }
+
+    @Test
+    void encodeMatchesKnownHash() {
+        assertEquals("ezs42", GeoHash.encode(42.6, -5.6, 5));
+        double[] box = GeoHash.bounds("ezs42");
+        assertTrue(box[0] <= 42.6 && 42.6 <= box[1] && box[2] <= -5.6 && -5.6 <= box[3]);
+    }
+
+    // points clustered around each center at a range of distances, ids match list positions
+    private static List<Place> scatter(Random random, int count) {
+        List<Place> places = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] center = CENTERS[i % CENTERS.length];
+            double spreadDegrees = Math.pow(10, random.nextDouble() * 4 - 3) * 4;
+            double lat = Math.max(-90, Math.min(90, center[0] + (random.nextDouble() * 2 - 1) * spreadDegrees));
+            double lon = center[1] + (random.nextDouble() * 2 - 1) * spreadDegrees;
+            if (lon > 180) lon -= 360;
+            if (lon < -180) lon += 360;
+            places.add(new Place(i, lat, lon));
+        }
+        return places;
+    }
+
+    private static List<Long> bruteForce(List<Place> places, double lat, double lon, double radiusKm) {
+        return places.stream()
+                .filter(p -> Haversine.distanceKm(lat, lon, p.lat(), p.lon()) <= radiusKm)
+                .sorted(Comparator.<Place>comparingDouble(p -> Haversine.distanceKm(lat, lon, p.lat(), p.lon()))
+                        .thenComparingLong(Place::id))
+                .map(Place::id)
+                .toList();
+    }
+
+    private static <T> List<Long> ids(List<GeoGridIndex.Hit<T>> hits) {
+        return hits.stream().map(GeoGridIndex.Hit::id).toList();
+    }
+}
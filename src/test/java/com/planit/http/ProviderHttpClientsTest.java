@@ -0,0 +1,164 @@
+package com.planit.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderHttpClientsTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    // respond 503 until this many requests have been served
+    private volatile int failuresBeforeSuccess;
+    private volatile String retryAfter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CloseableHttpClient client;
+    private RestTemplate rest;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/events", exchange -> {
+            int n = requests.incrementAndGet();
+            if (n <= failuresBeforeSuccess) {
+                if (retryAfter != null) exchange.getResponseHeaders().add("Retry-After", retryAfter);
+                exchange.sendResponseHeaders(503, -1);
+            } else {
+                byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+
+        client = ProviderHttpClients.create(new ProviderHttpClients.Settings(
+                Duration.ofSeconds(2), Duration.ofSeconds(2), Duration.ofSeconds(2),
+                10, 5, Duration.ofSeconds(30),
+                2, Duration.ofMillis(10), Duration.ofMillis(200),
+                3, Duration.ofMinutes(5)), meterRegistry);
+        rest = new RestTemplate(new HttpComponentsClientHttpRequestFactory(client));
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void retriesTransientFailuresAndRecordsEveryAttempt() {
+        failuresBeforeSuccess = 2;
+        retryAfter = "0";
+
+        assertEquals("[]", rest.getForObject(url(), String.class));
+        assertEquals(3, requests.get());
+
+        Timer failed = meterRegistry.get(RequestMetricsExecHandler.METRIC).tag("status", "503").timer();
+        Timer ok = meterRegistry.get(RequestMetricsExecHandler.METRIC).tag("status", "200").timer();
+        assertEquals(2, failed.count());
+        assertEquals(1, ok.count());
+        assertEquals("localhost", ok.getId().getTag("host"));
+    }
+
+    @Test
+    void doesNotWaitOutALongRetryAfter() {
+        failuresBeforeSuccess = 1;
+        retryAfter = "3600";
+
+        assertThrows(Exception.class, () -> rest.getForObject(url(), String.class));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingTheHost() {
+        failuresBeforeSuccess = Integer.MAX_VALUE;
+
+        // each call is 3 attempts (2 retries) and counts as one breaker failure
+        for (int i = 0; i < 3; i++) {
+            assertThrows(Exception.class, () -> rest.getForObject(url(), String.class));
+        }
+        assertEquals(9, requests.get());
+
+        ResourceAccessException ex = assertThrows(ResourceAccessException.class,
+                () -> rest.getForObject(url(), String.class));
+        assertInstanceOf(CircuitOpenException.class, ex.getCause());
+        assertEquals(9, requests.get());
+        assertEquals(1.0, meterRegistry.get("provider.http.circuit.open").tag("host", "localhost").gauge().value());
+    }
+
+    @Test
+    void circuitLetsOneProbeThroughAfterTheOpenPeriod() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000, now::get);
+
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only one probe while half-open");
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquire(), "a failed probe reopens the circuit");
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void parsesRetryAfterSecondsAndDates() {
+        Instant now = Instant.parse("2026-03-01T12:00:00Z");
+
+        assertEquals(Duration.ofSeconds(120), ProviderRetryStrategy.retryAfter(response("120"), now));
+        assertEquals(Duration.ofSeconds(30),
+                ProviderRetryStrategy.retryAfter(response("Sun, 01 Mar 2026 12:00:30 GMT"), now));
+        assertEquals(Duration.ZERO,
+                ProviderRetryStrategy.retryAfter(response("Sun, 01 Mar 2026 11:00:00 GMT"), now));
+        assertNull(ProviderRetryStrategy.retryAfter(response("soon"), now));
+        assertNull(ProviderRetryStrategy.retryAfter(new BasicHttpResponse(503), now));
+    }
+
+    @Test
+    void backoffIsJitteredAndCapped() {
+        ProviderRetryStrategy strategy = new ProviderRetryStrategy(5, Duration.ofMillis(100), Duration.ofMillis(1000));
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(strategy.jitteredBackoff(1) <= 100);
+            assertTrue(strategy.jitteredBackoff(3) <= 400);
+            assertTrue(strategy.jitteredBackoff(10) <= 1000);
+        }
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/events";
+    }
+
+    private static BasicHttpResponse response(String retryAfter) {
+        BasicHttpResponse response = new BasicHttpResponse(503);
+        response.addHeader("Retry-After", retryAfter);
+        return response;
+    }
+}
@@ -0,0 +1,142 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBulkUpserterTest {
+
+    private static final Region AUSTIN = Region.parse("Austin:TX:US");
+
+    private final FakeEventTable table = new FakeEventTable();
+    private final List<Object> published = new ArrayList<>();
+    private final EventBulkUpserter upserter = new EventBulkUpserter(table, published::add,
+            new EventDeduplicator(table), new IngestionMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void replayLeavesATombstonedEventRemoved() {
+        // cancelled last week; the page archived before that still lists it
+        table.existing(42, "sg-1", "hash-at-cancellation", Instant.parse("2026-03-10T00:00:00Z"));
+        Event archived = event("sg-1", "Cancelled show");
+
+        UpsertStats stats = upserter.upsert("SEATGEEK", AUSTIN, List.of(archived), false);
+
+        assertEquals(1, stats.skipped());
+        assertEquals(0, stats.updated());
+        assertTrue(table.upserts.isEmpty());
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void liveCrawlRevivesATombstonedEvent() {
+        table.existing(42, "sg-1", "hash-at-cancellation", Instant.parse("2026-03-10T00:00:00Z"));
+        Event relisted = event("sg-1", "Rescheduled show");
+
+        UpsertStats stats = upserter.upsert("SEATGEEK", AUSTIN, List.of(relisted), true);
+
+        assertEquals(1, stats.updated());
+        assertEquals(1, table.upserts.size());
+        assertTrue(table.upserts.get(0).contains("removed_at = NULL"));
+        assertEquals(42L, relisted.getId());
+    }
+
+    @Test
+    void replayConflictClauseSkipsRowsTombstonedMeanwhile() {
+        String clause = EventBulkUpserter.onConflictUpdate(false);
+
+        assertFalse(clause.contains("removed_at = NULL"));
+        assertTrue(clause.endsWith(" WHERE event.removed_at IS NULL"));
+        assertTrue(EventBulkUpserter.onConflictUpdate().contains("removed_at = NULL"));
+    }
+
+    @Test
+    void batchSizeIsClampedToTheBindParameterLimit() {
+        assertEquals(500, EventBulkUpserter.clampBatchSize(500));
+        assertEquals(1, EventBulkUpserter.clampBatchSize(0));
+        int largest = EventBulkUpserter.clampBatchSize(10_000);
+        assertTrue(largest * EventBulkUpserter.COLUMNS.length <= EventBulkUpserter.MAX_BIND_PARAMETERS);
+        assertTrue((largest + 1) * EventBulkUpserter.COLUMNS.length > EventBulkUpserter.MAX_BIND_PARAMETERS);
+    }
+
+    private static Event event(String externalId, String title) {
+        Event event = new Event();
+        event.setExternalId(externalId);
+        event.setTitle(title);
+        event.setStartTime(Instant.parse("2026-03-20T02:00:00Z"));
+        return event;
+    }
+
+    /**
+     * Answers the upserter's existing-row lookup from memory and records
+     * upsert statements, returning an id for every row they'd write.
+     */
+    private static class FakeEventTable extends JdbcTemplate {
+
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        final List<String> upserts = new ArrayList<>();
+
+        void existing(long id, String externalId, String contentHash, Instant removedAt) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("external_id", externalId);
+            row.put("content_hash", contentHash);
+            row.put("removed_at", removedAt != null ? Timestamp.from(removedAt) : null);
+            row.put("region", AUSTIN.key());
+            rows.add(row);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            try {
+                if (sql.startsWith("SELECT")) {
+                    for (Map<String, Object> row : rows) {
+                        rch.processRow(resultSet(row));
+                    }
+                } else if (sql.startsWith("INSERT")) {
+                    upserts.add(sql);
+                    int externalId = Arrays.asList(EventBulkUpserter.COLUMNS).indexOf("external_id");
+                    for (int i = externalId; i < args.length; i += EventBulkUpserter.COLUMNS.length) {
+                        Object written = args[i];
+                        Object id = rows.stream().filter(r -> r.get("external_id").equals(written))
+                                .findFirst().map(r -> r.get("id")).orElse(1000L + i);
+                        rch.processRow(resultSet(Map.of("id", id, "external_id", written)));
+                    }
+                } else {
+                    throw new UnsupportedOperationException(sql);
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        private static ResultSet resultSet(Map<String, Object> row) {
+            boolean[] wasNull = {false};
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                    (proxy, method, methodArgs) -> switch (method.getName()) {
+                        case "wasNull" -> wasNull[0];
+                        case "getLong" -> {
+                            Object value = row.get((String) methodArgs[0]);
+                            wasNull[0] = value == null;
+                            yield value != null ? ((Number) value).longValue() : 0L;
+                        }
+                        case "getString", "getTimestamp" -> {
+                            Object value = row.get((String) methodArgs[0]);
+                            wasNull[0] = value == null;
+                            yield value;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
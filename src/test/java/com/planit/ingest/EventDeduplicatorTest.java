@@ -0,0 +1,118 @@
+package com.planit.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventDeduplicatorTest {
+
+    private static final Instant EIGHT_PM = Instant.parse("2026-03-14T01:00:00Z");
+
+    @Test
+    void sameShowFromAnotherProviderLinksToTheOlderRow() {
+        List<EventDeduplicator.Candidate> rows = List.of(
+                candidate(1, "TICKETMASTER", "Khruangbin", "Moody Amphitheater", EIGHT_PM),
+                candidate(2, "SEATGEEK", "Khruangbin with Men I Trust", "The Moody Amphitheater", EIGHT_PM.plusSeconds(1800)));
+
+        Map<Long, Long> links = EventDeduplicator.assign(rows, List.of());
+
+        assertNull(links.get(1L));
+        assertEquals(1L, links.get(2L));
+    }
+
+    @Test
+    void differentTitlesTimesVenuesOrSameProviderStaySeparate() {
+        List<EventDeduplicator.Candidate> rows = List.of(
+                candidate(1, "TICKETMASTER", "Comedy Night", "Cap City Comedy Club", EIGHT_PM),
+                candidate(2, "SEATGEEK", "Jazz Night", "Cap City Comedy Club", EIGHT_PM),
+                candidate(3, "SEATGEEK", "Comedy Night", "Cap City Comedy Club", EIGHT_PM.plus(Duration.ofHours(3))),
+                candidate(4, "SEATGEEK", "Comedy Night", "Stubb's", EIGHT_PM),
+                candidate(5, "TICKETMASTER", "Comedy Night", "Cap City Comedy Club", EIGHT_PM));
+
+        Map<Long, Long> links = EventDeduplicator.assign(rows, List.of());
+
+        rows.forEach(row -> assertNull(links.get(row.id()), "row " + row.id()));
+    }
+
+    @Test
+    void startTimesStraddlingABucketBoundaryStillMatch() {
+        Instant boundary = Instant.ofEpochSecond(Math.floorDiv(EIGHT_PM.getEpochSecond(), 3600) * 3600 + 3600);
+        List<EventDeduplicator.Candidate> rows = List.of(
+                candidate(1, "TICKETMASTER", "Black Pumas", "ACL Live", boundary.minusSeconds(60)),
+                candidate(2, "SEATGEEK", "Black Pumas", "ACL Live", boundary.plusSeconds(60)));
+
+        assertNotEquals(rows.get(0).dedupKey(), rows.get(1).dedupKey());
+        assertEquals(1L, EventDeduplicator.assign(rows, List.of()).get(2L));
+    }
+
+    @Test
+    void poolRowsOnlyLinkToWrittenRows() {
+        // 5 and 6 are stored and already canonical; 3 is being written
+        List<EventDeduplicator.Candidate> pool = List.of(
+                candidate(5, "MINDBODY", "Sunrise Yoga", "Zilker Park", EIGHT_PM),
+                candidate(6, "SEATGEEK", "Sunrise Yoga", "Zilker Park", EIGHT_PM));
+        List<EventDeduplicator.Candidate> written = List.of(
+                candidate(3, "TICKETMASTER", "Sunrise Yoga Flow", "Zilker Park", EIGHT_PM));
+
+        Map<Long, Long> links = EventDeduplicator.assign(written, pool);
+
+        // the written row is older, so both stored rows now point at it
+        assertEquals(Set.of(3L, 5L, 6L), links.keySet());
+        assertNull(links.get(3L));
+        assertEquals(3L, links.get(5L));
+        assertEquals(3L, links.get(6L));
+    }
+
+    @Test
+    void linksEveryDuplicateAtScaleUsingBlocks() {
+        Random random = new Random(14);
+        int shows = 20_000;
+        String[] venues = new String[500];
+        for (int i = 0; i < venues.length; i++) venues[i] = "Venue " + i;
+
+        List<EventDeduplicator.Candidate> rows = new ArrayList<>();
+        for (int i = 0; i < shows; i++) {
+            String venue = venues[random.nextInt(venues.length)];
+            Instant start = EIGHT_PM.plus(Duration.ofHours(random.nextInt(24 * 180)));
+            String title = "Artist" + i + " Live In Concert";
+            rows.add(candidate(i, "TICKETMASTER", title, venue, start));
+            rows.add(candidate(shows + i, "SEATGEEK", "The " + title + " with Guests", venue.toUpperCase(), start.plusSeconds(900)));
+        }
+
+        long started = System.nanoTime();
+        Map<Long, Long> links = EventDeduplicator.assign(rows, List.of());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        for (int i = 0; i < shows; i++) {
+            assertNull(links.get((long) i));
+            assertEquals((long) i, links.get((long) shows + i));
+        }
+        // pairwise comparison would be 800M title comparisons
+        assertTrue(elapsedMillis < 5_000, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void similarityIgnoresCaseStopWordsAndExtraBilling() {
+        Set<String> a = EventDeduplicator.titleTokens("The Eras Tour: Taylor Swift");
+        Set<String> b = EventDeduplicator.titleTokens("TAYLOR SWIFT | THE ERAS TOUR (feat. Gracie Abrams)");
+
+        assertEquals(1.0, EventDeduplicator.similarity(a, b));
+        assertEquals(0.0, EventDeduplicator.similarity(a, Set.of()));
+    }
+
+    @Test
+    void dedupKeyNeedsVenueAndStart() {
+        assertNull(EventDeduplicator.dedupKey(null, EIGHT_PM));
+        assertNull(EventDeduplicator.dedupKey("The", EIGHT_PM));
+        assertNull(EventDeduplicator.dedupKey("Stubb's", null));
+        assertEquals(EventDeduplicator.dedupKey("The Parish", EIGHT_PM), EventDeduplicator.dedupKey("parish", EIGHT_PM));
+    }
+
+    private static EventDeduplicator.Candidate candidate(long id, String provider, String title, String venue, Instant start) {
+        return new EventDeduplicator.Candidate(id, provider, title, start, EventDeduplicator.dedupKey(venue, start));
+    }
+}
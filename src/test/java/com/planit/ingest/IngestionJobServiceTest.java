@@ -0,0 +1,103 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionJobServiceTest {
+
+    // jobs stay active until released: the orchestrator asks each provider
+    // whether it's enabled before crawling, and the providers wait here first
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final IngestionJobService service = new IngestionJobService(new IngestionOrchestrator(
+            List.of(provider("TICKETMASTER", true), provider("SEATGEEK", true), provider("MINDBODY", false)),
+            new IngestionRegions(List.of("Austin:TX:US", "Dallas:TX:US")),
+            null, null, null, null, 4), 4, 10);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.destroy();
+    }
+
+    @Test
+    void fetchAllWhileOneProviderRunsStartsTheOthers() {
+        IngestionJob ticketmaster = service.submit("TICKETMASTER").job();
+
+        IngestionJobService.Submission all = service.submitAll();
+
+        assertFalse(all.deduplicated());
+        assertEquals(List.of("SEATGEEK", "MINDBODY"), all.job().getProviders());
+        assertEquals(List.of(), all.job().getRegions());
+        assertEquals(List.of(all.job(), ticketmaster), all.jobs());
+    }
+
+    @Test
+    void returnsTheExistingJobOnlyWhenItCoversEverything() {
+        IngestionJob all = service.submitAll().job();
+
+        IngestionJobService.Submission again = service.submit(List.of("TICKETMASTER", "SEATGEEK"), List.of("austin-tx"));
+
+        assertTrue(again.deduplicated());
+        assertSame(all, again.job());
+    }
+
+    @Test
+    void startsOnlyTheRegionsNotAlreadyRunning() {
+        IngestionJob austin = service.submit(List.of("TICKETMASTER"), List.of("austin-tx")).job();
+
+        IngestionJobService.Submission both = service.submit(List.of("TICKETMASTER"), List.of("austin-tx", "dallas-tx"));
+        IngestionJobService.Submission everywhere = service.submit(List.of("SEATGEEK", "MINDBODY"), List.of());
+
+        assertFalse(both.deduplicated());
+        assertEquals(List.of("dallas-tx"), both.job().getRegions());
+        assertEquals(List.of(both.job(), austin), both.jobs());
+        // SeatGeek isn't running anywhere yet, so it gets every region
+        assertEquals(List.of("SEATGEEK", "MINDBODY"), everywhere.job().getProviders());
+        assertEquals(List.of(), everywhere.job().getRegions());
+
+        IngestionJobService.Submission ticketmasterEverywhere = service.submit("TICKETMASTER");
+        assertTrue(ticketmasterEverywhere.deduplicated());
+    }
+
+    private EventProvider provider(String name, boolean regional) {
+        return new EventProvider() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void fetchEvents(Region region, Consumer<Event> sink, IngestionProgress progress) {
+            }
+
+            @Override
+            public int parsePage(InputStream body, Consumer<Event> sink) {
+                return 0;
+            }
+
+            @Override
+            public boolean isRegional() {
+                return regional;
+            }
+
+            @Override
+            public boolean isEnabled() {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IngestionMetrics metrics = new IngestionMetrics(meterRegistry);
+
+    @Test
+    void parsedCountsEveryEventHandedOverIncludingRepeats() {
+        List<Event> received = new ArrayList<>();
+        Consumer<Event> sink = metrics.countParsed("SEATGEEK", received::add);
+
+        sink.accept(event("sg-1"));
+        sink.accept(event("sg-1"));
+        sink.accept(event("sg-2"));
+
+        assertEquals(3, received.size());
+        assertEquals(3, count("parsed"));
+    }
+
+    @Test
+    void aRunRecordsRowOutcomesButNotParsed() {
+        metrics.recordRun(new ProviderRunResult("SEATGEEK", "austin-tx", ProviderRunResult.Status.OK,
+                2, 1, 1, 0, 0, 10, List.of()));
+
+        assertEquals(1, count("inserted"));
+        assertEquals(1, count("updated"));
+        assertEquals(0, count("parsed"));
+    }
+
+    private double count(String result) {
+        var counter = meterRegistry.find("ingestion.events").tag("provider", "SEATGEEK").tag("result", result).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static Event event(String externalId) {
+        Event event = new Event();
+        event.setExternalId(externalId);
+        return event;
+    }
+}
@@ -0,0 +1,34 @@
+package com.planit.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionProgressTest {
+
+    @Test
+    void describeMasksCredentialsInRequestUrls() {
+        ResourceAccessException ex = new ResourceAccessException("I/O error on GET request for "
+                + "\"https://app.ticketmaster.com/discovery/v2/events.json?apikey=s3cr3t&city=Austin&page=4\": "
+                + "Read timed out", new SocketTimeoutException("Read timed out"));
+
+        String error = IngestionProgress.describe(ex);
+
+        assertFalse(error.contains("s3cr3t"), error);
+        assertTrue(error.startsWith("ResourceAccessException: "), error);
+        assertTrue(error.contains("?apikey=REMOVED&city=Austin&page=4"), error);
+    }
+
+    @Test
+    void describeReducesHttpErrorsToTheirStatus() {
+        HttpClientErrorException ex = HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized",
+                null, "{\"fault\":{\"faultstring\":\"Invalid ApiKey s3cr3t\"}}".getBytes(), null);
+
+        assertEquals("Unauthorized: HTTP 401", IngestionProgress.describe(ex));
+    }
+}
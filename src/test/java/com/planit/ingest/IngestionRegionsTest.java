@@ -0,0 +1,32 @@
+package com.planit.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionRegionsTest {
+
+    @Test
+    void citiesSharingANameAreDistinctRegions() {
+        IngestionRegions regions = new IngestionRegions(List.of(
+                "Portland:OR:US", "Portland:ME:US", "Kansas City:MO:US", "Kansas City:KS:US"));
+
+        assertEquals(List.of("portland-or", "portland-me", "kansas-city-mo", "kansas-city-ks"),
+                regions.all().stream().map(Region::key).toList());
+        assertEquals("ME", regions.find("Portland-ME").orElseThrow().stateCode());
+    }
+
+    @Test
+    void regionsWithoutAStateAreKeyedByCity() {
+        assertEquals("san-antonio", Region.parse("San Antonio").key());
+        assertEquals("san-antonio-tx", Region.parse(" San Antonio : tx : us ").key());
+    }
+
+    @Test
+    void rejectsTheSameRegionTwice() {
+        assertThrows(IllegalStateException.class,
+                () -> new IngestionRegions(List.of("Austin:TX:US", "austin:tx")));
+    }
+}
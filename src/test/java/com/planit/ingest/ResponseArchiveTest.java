@@ -0,0 +1,98 @@
+package com.planit.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseArchiveTest {
+
+    private static final Region AUSTIN = Region.parse("Austin:TX:US");
+    private static final Instant T0 = Instant.parse("2026-03-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordPassesTheBodyThroughAndReadsItBack() throws Exception {
+        ResponseArchive archive = new ResponseArchive(dir, true, DataSize.ofMegabytes(1));
+
+        String parsed = archive.record("TICKETMASTER", AUSTIN, body("page 0"),
+                body -> new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        archive.destroy();
+
+        assertEquals("page 0", parsed);
+        List<ResponseArchive.Entry> entries = archive.entries("TICKETMASTER", List.of(), null, null);
+        assertEquals(1, entries.size());
+        assertEquals("austin-tx", entries.get(0).region());
+        assertEquals(List.of("page 0"), bodies(archive, entries));
+    }
+
+    @Test
+    void disabledArchiveWritesNothing() throws Exception {
+        ResponseArchive archive = new ResponseArchive(dir.resolve("off"), false, DataSize.ofMegabytes(1));
+
+        archive.record("TICKETMASTER", AUSTIN, body("page 0"), body -> body.readAllBytes().length);
+
+        assertFalse(Files.exists(dir.resolve("off")));
+        assertTrue(archive.entries("TICKETMASTER", List.of(), null, null).isEmpty());
+    }
+
+    @Test
+    void filtersByProviderRegionAndWindowOldestFirst() throws Exception {
+        ResponseArchive archive = new ResponseArchive(dir, true, DataSize.ofMegabytes(1));
+        archive.append("TICKETMASTER", "austin", T0.plusSeconds(20), bytes("tm austin late"));
+        archive.append("TICKETMASTER", "austin", T0, bytes("tm austin early"));
+        archive.append("TICKETMASTER", "dallas", T0.plusSeconds(10), bytes("tm dallas"));
+        archive.append("MINDBODY", null, T0.plusSeconds(10), bytes("mindbody"));
+        archive.destroy();
+
+        assertEquals(List.of("tm austin early", "tm austin late"),
+                bodies(archive, archive.entries("TICKETMASTER", Set.of("austin"), null, null)));
+        assertEquals(List.of("tm dallas"),
+                bodies(archive, archive.entries("TICKETMASTER", List.of(), T0.plusSeconds(1), T0.plusSeconds(20))));
+        List<ResponseArchive.Entry> mindbody = archive.entries("MINDBODY", List.of(), null, null);
+        assertNull(mindbody.get(0).region());
+        assertEquals(List.of("mindbody"), bodies(archive, mindbody));
+    }
+
+    @Test
+    void rollsSegmentsAndKeepsEarlierOnesAcrossRestarts() throws Exception {
+        ResponseArchive archive = new ResponseArchive(dir, true, DataSize.ofBytes(1));
+        archive.append("SEATGEEK", "austin", T0, bytes("first"));
+        archive.append("SEATGEEK", "austin", T0.plusSeconds(1), bytes("second"));
+        archive.destroy();
+
+        ResponseArchive restarted = new ResponseArchive(dir, true, DataSize.ofMegabytes(1));
+        restarted.append("SEATGEEK", "austin", T0.plusSeconds(2), bytes("third"));
+        restarted.destroy();
+
+        List<ResponseArchive.Entry> entries = restarted.entries("SEATGEEK", List.of(), null, null);
+        assertEquals(List.of(1, 2, 3), entries.stream().map(ResponseArchive.Entry::segment).toList());
+        assertEquals(List.of("first", "second", "third"), bodies(restarted, entries));
+    }
+
+    private static List<String> bodies(ResponseArchive archive, List<ResponseArchive.Entry> entries) throws Exception {
+        List<String> bodies = new ArrayList<>();
+        archive.read(entries, (entry, body) -> bodies.add(new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+        return bodies;
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(bytes(text));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
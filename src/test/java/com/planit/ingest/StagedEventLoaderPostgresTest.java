@@ -0,0 +1,158 @@
+package com.planit.ingest;
+
+import com.planit.model.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs staged loads against a real PostgreSQL, since COPY, {@code xmax} and
+ * {@code ON CONFLICT ... WHERE} have no H2 equivalent.
+ *
+ * Excluded from the default build; run with {@code ./mvnw test -Ppostgres}
+ * against a scratch database, by default postgres@localhost:5432/planit_test
+ * (override with {@code -Dpostgres.url}, {@code -Dpostgres.username} and
+ * {@code -Dpostgres.password}). The event table is recreated and emptied.
+ */
+@Tag("postgres")
+@SpringBootTest
+@ActiveProfiles("postgres")
+@RecordApplicationEvents
+class StagedEventLoaderPostgresTest {
+
+    private static final Region AUSTIN = Region.parse("Austin:TX:US");
+    private static final Instant WINDOW_START = Instant.parse("2026-05-01T00:00:00Z");
+
+    @Autowired
+    private StagedEventLoader loader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @BeforeEach
+    void emptyTable() {
+        jdbcTemplate.update("DELETE FROM event");
+    }
+
+    @Test
+    void commitReportsInsertedUpdatedUnchangedAndRemovedRows() throws Exception {
+        load(null, event("tm-1", "Unchanged"), event("tm-2", "Old title"), event("tm-3", "Cancelled"));
+        Map<String, Long> before = ids();
+        applicationEvents.clear();
+
+        StagedEventLoader.Result result = load(WINDOW_START,
+                // only the last copy of a repeated id counts, and it matches what's stored
+                event("tm-1", "Stale copy"), event("tm-1", "Unchanged"),
+                event("tm-2", "New title"),
+                event("tm-4", "Just announced"));
+
+        assertEquals(3, result.stats().rows());
+        assertEquals(1, result.stats().inserted());
+        assertEquals(1, result.stats().updated());
+        assertEquals(1, result.stats().skipped());
+        assertEquals(1, result.removed());
+
+        List<EventsChangedEvent> published = applicationEvents.stream(EventsChangedEvent.class).toList();
+        assertEquals(1, published.size());
+        EventsChangedEvent changed = published.get(0);
+        assertEquals(List.of(ids().get("tm-4")), changed.insertedIds());
+        assertEquals(List.of(before.get("tm-2")), changed.updatedIds());
+        assertEquals(List.of(before.get("tm-3")), changed.removedIds());
+
+        assertEquals("Unchanged", title("tm-1"));
+        assertEquals("New title", title("tm-2"));
+        assertTrue(isRemoved("tm-3"));
+        assertFalse(isRemoved("tm-1"));
+    }
+
+    @Test
+    void incompleteCrawlRemovesNothing() throws Exception {
+        load(null, event("tm-1", "Listed"), event("tm-2", "On a page that failed"));
+
+        StagedEventLoader.Result result = load(null, event("tm-1", "Listed"));
+
+        assertEquals(0, result.removed());
+        assertFalse(isRemoved("tm-2"));
+    }
+
+    @Test
+    void relistedEventIsRevivedAsAnUpdate() throws Exception {
+        load(null, event("tm-1", "Listed"), event("tm-2", "Cancelled"));
+        load(WINDOW_START, event("tm-1", "Listed"));
+        assertTrue(isRemoved("tm-2"));
+
+        StagedEventLoader.Result result = load(WINDOW_START, event("tm-1", "Listed"), event("tm-2", "Cancelled"));
+
+        assertEquals(1, result.stats().updated());
+        assertEquals(1, result.stats().skipped());
+        assertFalse(isRemoved("tm-2"));
+    }
+
+    @Test
+    void copyKeepsNullsEmptyStringsQuotesAndMicroseconds() throws Exception {
+        Event event = event("tm-1", "Say \"Hi\", Austin\nTonight");
+        event.setGenre("");
+        event.setCategory(null);
+        event.setStartTime(Instant.parse("2026-06-01T02:00:00.123456Z"));
+
+        load(null, event);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT title, genre, category, start_time, region FROM event WHERE external_id = 'tm-1'");
+        assertEquals("Say \"Hi\", Austin\nTonight", row.get("title"));
+        assertEquals("", row.get("genre"));
+        assertNull(row.get("category"));
+        assertEquals(Instant.parse("2026-06-01T02:00:00.123456Z"), ((Timestamp) row.get("start_time")).toInstant());
+        assertEquals(AUSTIN.key(), row.get("region"));
+    }
+
+    private StagedEventLoader.Result load(Instant tombstoneFrom, Event... events) throws Exception {
+        try (StagedEventLoader.StagedLoad load = loader.open("TICKETMASTER", AUSTIN)) {
+            for (Event event : events) {
+                load.accept(event);
+            }
+            return load.commit(tombstoneFrom);
+        }
+    }
+
+    private Map<String, Long> ids() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, external_id FROM event",
+                rs -> { ids.put(rs.getString("external_id"), rs.getLong("id")); });
+        return ids;
+    }
+
+    private String title(String externalId) {
+        return jdbcTemplate.queryForObject("SELECT title FROM event WHERE external_id = ?", String.class, externalId);
+    }
+
+    private boolean isRemoved(String externalId) {
+        return jdbcTemplate.queryForObject("SELECT removed_at IS NOT NULL FROM event WHERE external_id = ?",
+                Boolean.class, externalId);
+    }
+
+    private static Event event(String externalId, String title) {
+        Event event = new Event();
+        event.setExternalId(externalId);
+        event.setTitle(title);
+        event.setStartTime(Instant.parse("2026-06-01T02:00:00Z"));
+        return event;
+    }
+}
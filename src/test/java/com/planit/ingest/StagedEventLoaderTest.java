@@ -0,0 +1,41 @@
+package com.planit.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedEventLoaderTest {
+
+    @Test
+    void nullIsAnUnquotedEmptyFieldAndAnEmptyStringIsQuoted() throws Exception {
+        assertEquals(",\"\",", row(null, "", null));
+    }
+
+    @Test
+    void quotesAreDoubledAndSeparatorsStayInsideTheField() throws Exception {
+        assertEquals("\"Say \"\"Hi\"\", Austin\",\"Line one\nLine two\"",
+                row("Say \"Hi\", Austin", "Line one\nLine two"));
+    }
+
+    @Test
+    void timestampsAreWrittenAsUtcInstants() throws Exception {
+        Timestamp start = Timestamp.from(Instant.parse("2026-03-01T02:00:00.123456Z"));
+
+        // COPY reads this the same whatever the session time zone
+        assertEquals("\"2026-03-01T02:00:00.123456Z\",\"30.2682\"", row(start, 30.2682));
+    }
+
+    private static String row(Object... values) throws IOException {
+        StringWriter out = new StringWriter();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            StagedEventLoader.writeCsv(out, values[i]);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,277 @@
+package com.planit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.planit.seed.SyntheticEvents;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives GET /api/events with a mix of filter shapes from concurrent clients
+ * and reports throughput, latency percentiles and server-side allocation.
+ *
+ * Excluded from the default build; run with
+ * {@code ./mvnw test -Ploadtest -Dloadtest.events=100000 -Dloadtest.clients=32}.
+ * It seeds an in-memory H2 in PostgreSQL mode by default; pass
+ * {@code -Dspring.datasource.url=jdbc:postgresql://localhost:5432/planit_load} (plus
+ * username/password) to measure against a local Postgres instead. The data
+ * and the query sequence are seeded, so two branches get the same workload.
+ * Add {@code -Dloadtest.store=true} to read from the in-memory event store
+ * instead of JPA; the report then includes its memory per event, and the
+ * events.query timings show lookup latency without HTTP and serialization.
+ * Results are printed and written to target/loadtest/report.json.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class EventsApiLoadTest {
+
+    private record Query(String shape, String path, boolean gzip, int pages) {}
+
+    private record Stats(long requests, long errors, long[] latenciesNanos, Map<String, Long> byShape) {}
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // load generator threads, left out of the server's allocation figures
+    private final Set<Long> clientThreads = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void mixedFilterQueries() throws Exception {
+        int clients = environment.getProperty("loadtest.clients", Integer.class, 16);
+        int warmupSeconds = environment.getProperty("loadtest.warmup-seconds", Integer.class, 10);
+        int durationSeconds = environment.getProperty("loadtest.duration-seconds", Integer.class, 30);
+        long seed = environment.getProperty("loadtest.random-seed", Long.class, 18L);
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port") + "/api";
+
+        long events = jdbcTemplate.queryForObject("SELECT count(*) FROM event", Long.class);
+        Instant first = jdbcTemplate.queryForObject("SELECT min(start_time) FROM event", Timestamp.class).toInstant();
+        Instant last = jdbcTemplate.queryForObject("SELECT max(start_time) FROM event", Timestamp.class).toInstant();
+        assertTrue(events > 0, "nothing was seeded");
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(clients, this::clientThread))
+                .build();
+
+        System.out.println("Load test: " + events + " events, " + clients + " clients, "
+                + warmupSeconds + "s warmup, " + durationSeconds + "s measured");
+        run(http, baseUrl, clients, warmupSeconds, seed - 1, first, last);
+
+        long allocatedBefore = serverAllocatedBytes();
+        long started = System.nanoTime();
+        Stats stats = run(http, baseUrl, clients, durationSeconds, seed, first, last);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        long allocated = serverAllocatedBytes() - allocatedBefore;
+
+        long[] latencies = stats.latenciesNanos();
+        Arrays.sort(latencies);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("events", events);
+        report.put("clients", clients);
+        report.put("durationSeconds", elapsedSeconds);
+        report.put("database", environment.getProperty("spring.datasource.url"));
+        report.put("requests", stats.requests());
+        report.put("errors", stats.errors());
+        report.put("throughputPerSecond", stats.requests() / elapsedSeconds);
+        report.put("p50Millis", percentile(latencies, 0.50));
+        report.put("p99Millis", percentile(latencies, 0.99));
+        report.put("p999Millis", percentile(latencies, 0.999));
+        report.put("maxMillis", latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0);
+        report.put("allocatedMegabytesPerSecond", allocated / elapsedSeconds / (1 << 20));
+        report.put("allocatedBytesPerRequest", stats.requests() > 0 ? allocated / stats.requests() : 0);
+        report.put("requestsByShape", stats.byShape());
+        report.put("readEngine", environment.getProperty("events.store.enabled", Boolean.class, false) ? "store" : "jpa");
+        Gauge storeBytes = meterRegistry.find("events.store.bytes").gauge();
+        if (storeBytes != null && storeBytes.value() > 0) {
+            report.put("storeBytesPerEvent", (long) storeBytes.value() / Math.max(1, events));
+        }
+        // cache misses only: the lookup itself, before serialization
+        for (Timer query : meterRegistry.find("events.query").timers()) {
+            if (query.count() == 0) continue;
+            report.put("query." + query.getId().getTag("engine") + ".count", query.count());
+            report.put("query." + query.getId().getTag("engine") + ".meanMicros", query.mean(TimeUnit.MICROSECONDS));
+            report.put("query." + query.getId().getTag("engine") + ".maxMicros", query.max(TimeUnit.MICROSECONDS));
+        }
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        String json = mapper.writeValueAsString(report);
+        System.out.println(json);
+        Path out = Path.of("target", "loadtest", "report.json");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, json);
+
+        assertEquals(0, stats.errors(), "requests failed or returned an unexpected status");
+    }
+
+    private Stats run(HttpClient http, String baseUrl, int clients, int seconds, long seed,
+                      Instant first, Instant last) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients, this::clientThread);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<Stats>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Random random = new Random(seed * 31 + c);
+            futures.add(pool.submit(() -> client(http, baseUrl, random, first, last, stop)));
+        }
+
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+
+        long requests = 0, errors = 0;
+        List<long[]> latencies = new ArrayList<>();
+        Map<String, Long> byShape = new TreeMap<>();
+        for (Future<Stats> future : futures) {
+            Stats stats = future.get();
+            requests += stats.requests();
+            errors += stats.errors();
+            latencies.add(stats.latenciesNanos());
+            stats.byShape().forEach((shape, n) -> byShape.merge(shape, n, Long::sum));
+        }
+        pool.shutdown();
+
+        long[] merged = new long[latencies.stream().mapToInt(a -> a.length).sum()];
+        int offset = 0;
+        for (long[] part : latencies) {
+            System.arraycopy(part, 0, merged, offset, part.length);
+            offset += part.length;
+        }
+        return new Stats(requests, errors, merged, byShape);
+    }
+
+    private Stats client(HttpClient http, String baseUrl, Random random, Instant first, Instant last,
+                         AtomicBoolean stop) {
+        long requests = 0, errors = 0;
+        long[] latencies = new long[1 << 12];
+        Map<String, Long> byShape = new TreeMap<>();
+
+        while (!stop.get()) {
+            Query query = nextQuery(random, first, last);
+            String path = query.path();
+            for (int page = 0; page < query.pages() && path != null; page++) {
+                HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .timeout(Duration.ofSeconds(30));
+                if (query.gzip()) request.header("Accept-Encoding", "gzip");
+
+                long started = System.nanoTime();
+                String next = null;
+                try {
+                    HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                    if (response.statusCode() != 200) {
+                        errors++;
+                    } else {
+                        next = response.headers().firstValue("X-Next-Cursor").orElse(null);
+                    }
+                } catch (Exception ex) {
+                    if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+                    errors++;
+                }
+
+                if (requests == latencies.length) latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                latencies[(int) requests++] = System.nanoTime() - started;
+                byShape.merge(query.shape(), 1L, Long::sum);
+
+                path = next != null ? query.path() + "&cursor=" + encode(next) : null;
+            }
+        }
+        return new Stats(requests, errors, Arrays.copyOf(latencies, (int) requests), byShape);
+    }
+
+    /**
+     * Weighted like the UI's traffic: mostly category browsing and date
+     * windows, some paging, the occasional full listing.
+     */
+    private static Query nextQuery(Random random, Instant first, Instant last) {
+        List<String> categories = SyntheticEvents.categories();
+        String category = categories.get(random.nextInt(categories.size()));
+        List<String> genres = SyntheticEvents.genres(category);
+        long spanDays = Math.max(1, Duration.between(first, last).toDays());
+        Instant from = first.plus(Duration.ofDays(random.nextLong(spanDays)));
+
+        int roll = random.nextInt(100);
+        if (roll < 10) {
+            return new Query("all", "/events?limit=100", false, 1);
+        } else if (roll < 30) {
+            return new Query("category", "/events?limit=100&category=" + encode(category), false, 1);
+        } else if (roll < 45) {
+            return new Query("category_genre", "/events?limit=100&category=" + encode(category)
+                    + "&genre=" + encode(genres.get(random.nextInt(genres.size()))), false, 1);
+        } else if (roll < 65) {
+            return new Query("window", "/events?from=" + from + "&to=" + from.plus(Duration.ofDays(7)), false, 1);
+        } else if (roll < 75) {
+            return new Query("window_gzip", "/events?from=" + from + "&to=" + from.plus(Duration.ofDays(7)), true, 1);
+        } else if (roll < 90) {
+            return new Query("paged", "/events?limit=50&category=" + encode(category) + "&from=" + from, false, 3);
+        } else {
+            return new Query("facets", "/events/facets?from=" + from + "&to=" + from.plus(Duration.ofDays(30)), false, 1);
+        }
+    }
+
+    private Thread clientThread(Runnable task) {
+        Thread thread = new Thread(task, "loadtest-client");
+        thread.setDaemon(true);
+        clientThreads.add(thread.threadId());
+        return thread;
+    }
+
+    /**
+     * Bytes allocated so far by every live thread except the load generator's,
+     * i.e. by Tomcat workers and whatever the app runs in the background.
+     * The HttpClient's own selector thread is recognized by name.
+     */
+    private long serverAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = Arrays.stream(threads.getThreadInfo(threads.getAllThreadIds()))
+                .filter(info -> info != null && !clientThreads.contains(info.getThreadId())
+                        && !info.getThreadName().startsWith("HttpClient-"))
+                .mapToLong(info -> info.getThreadId())
+                .toArray();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(ids)) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
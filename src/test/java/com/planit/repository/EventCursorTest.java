@@ -0,0 +1,50 @@
+package com.planit.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCursorTest {
+
+    @Test
+    void roundTripsStartTimeToTheNanosecondAndId() {
+        EventCursor cursor = new EventCursor(Instant.parse("2026-03-01T02:00:00.123456789Z"), 42);
+
+        EventCursor decoded = EventCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertEquals(123456789, decoded.startTime().getNano());
+    }
+
+    @Test
+    void roundTripsWholeSecondsAndTimesBeforeTheEpoch() {
+        EventCursor whole = new EventCursor(Instant.parse("2026-03-01T02:00:00Z"), 1);
+        EventCursor early = new EventCursor(Instant.parse("1969-12-31T23:59:59.5Z"), Long.MAX_VALUE);
+
+        assertEquals(whole, EventCursor.decode(whole.encode()));
+        assertEquals(early, EventCursor.decode(early.encode()));
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new EventCursor(Instant.parse("2026-03-01T02:00:00.999999999Z"), 987654321).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+    }
+
+    @Test
+    void rejectsAnythingEncodeDidNotProduce() {
+        for (String cursor : new String[] {"", "not base64!", encode("no-separators"), encode("1.2"),
+                encode("x.0:1"), encode("1.0:y")}) {
+            assertThrows(IllegalArgumentException.class, () -> EventCursor.decode(cursor), cursor);
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.planit.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private record Doc(String title, String venue) {}
+
+    private final InvertedIndex<Doc> index = new InvertedIndex<>(List.of(
+            new InvertedIndex.Field<>(Doc::title, 3.0),
+            new InvertedIndex.Field<>(Doc::venue, 2.0)));
+
+    @Test
+    void everyTokenMustMatchAndLastMayBePartial() {
+        index.put(1, new Doc("Taylor Swift | The Eras Tour", "Moody Center"));
+        index.put(2, new Doc("Taylor Made Comedy", "Cap City Comedy Club"));
+        index.put(3, new Doc("Swift Kick", "Mohawk"));
+
+        assertEquals(List.of(1L), ids("taylor sw"));
+        assertEquals(List.of(1L, 2L), ids("TAYLOR"));
+        assertEquals(List.of(2L), ids("comedy cap"));
+        assertTrue(ids("taylor mohawk").isEmpty());
+        assertTrue(ids("  --  ").isEmpty());
+    }
+
+    @Test
+    void exactAndTitleMatchesRankAbovePrefixAndVenueMatches() {
+        index.put(1, new Doc("Jazz Brunch", "The Elephant Room"));
+        index.put(2, new Doc("Brunch", "Jazzman's Bar"));
+        index.put(3, new Doc("Open Mic", "Jazz Cafe"));
+
+        // title exact > venue exact > venue prefix
+        assertEquals(List.of(1L, 3L, 2L), ids("jazz"));
+    }
+
+    @Test
+    void accentsAndPunctuationAreFolded() {
+        index.put(1, new Doc("Beyoncé – Renaissance", "Q2 Stadium"));
+
+        assertEquals(List.of(1L), ids("beyonce renaiss"));
+        assertEquals(List.of(1L), ids("q2"));
+    }
+
+    @Test
+    void updatesAndRemovalsReplacePostings() {
+        index.put(1, new Doc("Old Title", "Stubb's"));
+        index.put(1, new Doc("New Title", "Stubb's"));
+
+        assertTrue(ids("old").isEmpty());
+        assertEquals(List.of(1L), ids("new"));
+
+        index.remove(1);
+        assertTrue(ids("title").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void limitKeepsTheBestHits() {
+        for (int i = 0; i < 50; i++) {
+            index.put(i, new Doc("Show " + i, "Venue"));
+        }
+        index.put(100, new Doc("Showcase", "Show Hall"));
+
+        List<Long> top = ids("show", 3);
+        assertEquals(3, top.size());
+        // a rare prefix match in the title outweighs an exact match on a term every document has
+        assertEquals(100L, top.get(0));
+    }
+
+    private List<Long> ids(String query) {
+        return ids(query, 100);
+    }
+
+    private List<Long> ids(String query, int limit) {
+        return index.search(query, limit).stream().map(InvertedIndex.Hit::id).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.planit.service;
+
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.model.Event;
+import com.planit.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangedEventLoaderTest {
+
+    private final List<List<Long>> queries = new ArrayList<>();
+
+    @Test
+    void loadsEachEventOnceInBoundedChunks() {
+        ChangedEventLoader loader = new ChangedEventLoader(repository());
+        List<Long> inserted = LongStream.rangeClosed(1, 1500).boxed().toList();
+        List<Long> updated = LongStream.rangeClosed(1501, 2500).boxed().toList();
+        EventsChangedEvent event = new EventsChangedEvent("TICKETMASTER", inserted, updated, List.of());
+
+        List<Event> first = loader.changedEvents(event);
+        List<Event> second = loader.changedEvents(event);
+
+        assertSame(first, second);
+        assertEquals(List.of(1000, 1000, 500), queries.stream().map(List::size).toList());
+        // odd ids play the rows hidden as duplicates since
+        assertEquals(1250, first.size());
+        assertTrue(first.stream().allMatch(e -> e.getId() % 2 == 0));
+    }
+
+    @Test
+    void anotherEventLoadsAgain() {
+        ChangedEventLoader loader = new ChangedEventLoader(repository());
+
+        loader.changedEvents(new EventsChangedEvent("SEATGEEK", List.of(2L), List.of(), List.of()));
+        loader.changedEvents(new EventsChangedEvent("SEATGEEK", List.of(2L), List.of(), List.of()));
+
+        assertEquals(2, queries.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private EventRepository repository() {
+        return (EventRepository) Proxy.newProxyInstance(EventRepository.class.getClassLoader(),
+                new Class<?>[] {EventRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findAllById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    List<Long> ids = new ArrayList<>();
+                    ((Iterable<Long>) args[0]).forEach(ids::add);
+                    queries.add(ids);
+                    return ids.stream().filter(id -> id % 2 == 0).map(ChangedEventLoaderTest::event).toList();
+                });
+    }
+
+    private static Event event(long id) {
+        Event event = new Event();
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,88 @@
+package com.planit.service;
+
+import com.planit.model.Event;
+import com.planit.repository.EventFilter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCalendarServiceTest {
+
+    private static final Instant STAMP = Instant.parse("2026-03-01T12:00:00Z");
+    private static final EventFilter MUSIC = EventFilter.of(List.of("Music"), null, null, null);
+
+    @Test
+    void writesOneVeventPerTimedEvent() throws Exception {
+        Event show = event(7L, "Velvet Revival", Instant.parse("2026-03-02T01:30:00Z"));
+        show.setEndTime(Instant.parse("2026-03-02T04:00:00Z"));
+        show.setVenueName("Stubb's");
+        show.setLatitude(30.2682);
+        show.setLongitude(-97.7364);
+        show.setCategory("Music");
+        show.setGenre("Rock");
+        show.setUrl("https://example.com/events/7");
+        Event untimed = event(8L, "Sometime", null);
+
+        String ics = render(List.of(show, untimed));
+
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+        assertTrue(ics.endsWith("END:VEVENT\r\nEND:VCALENDAR\r\n"));
+        assertTrue(ics.contains("X-WR-CALNAME:PlanIT events - Music\r\n"));
+        assertTrue(ics.contains("""
+                BEGIN:VEVENT\r
+                UID:event-7@planit\r
+                DTSTAMP:20260301T120000Z\r
+                DTSTART:20260302T013000Z\r
+                DTEND:20260302T040000Z\r
+                SUMMARY:Velvet Revival\r
+                LOCATION:Stubb's\r
+                GEO:30.2682;-97.7364\r
+                CATEGORIES:Music,Rock\r
+                URL:https://example.com/events/7\r
+                END:VEVENT\r
+                """));
+        assertFalse(ics.contains("event-8@planit"));
+    }
+
+    @Test
+    void escapesTextValues() throws Exception {
+        Event event = event(1L, "Rock, Paper; Scissors\\Lizard\nSpock", Instant.parse("2026-03-02T01:30:00Z"));
+
+        String ics = render(List.of(event));
+
+        assertTrue(ics.contains("SUMMARY:Rock\\, Paper\\; Scissors\\\\Lizard\\nSpock\r\n"));
+    }
+
+    @Test
+    void foldsLongLinesAt75OctetsWithoutSplittingCharacters() throws Exception {
+        String title = "Café Tacuba ".repeat(20).trim();
+        Event event = event(1L, title, Instant.parse("2026-03-02T01:30:00Z"));
+
+        String ics = render(List.of(event));
+
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        // unfolding (dropping CRLF + space) restores the value
+        assertTrue(ics.replace("\r\n ", "").contains("SUMMARY:" + title + "\r\n"));
+    }
+
+    private static String render(List<Event> events) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EventCalendarService.write(MUSIC, events, STAMP, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Event event(Long id, String title, Instant start) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setStartTime(start);
+        return event;
+    }
+}
@@ -0,0 +1,191 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventChangeFeedTest {
+
+    private static final Pattern ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // released at the end, so stalled clients' writes can finish
+    private final CountDownLatch unstall = new CountDownLatch(1);
+    private final Deque<RecordingEmitter> nextEmitters = new ArrayDeque<>();
+    private EventChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        unstall.countDown();
+        feed.destroy();
+    }
+
+    @Test
+    void stalledClientsAreEvictedWithoutHoldingUpOthers() {
+        feed = newFeed(4, 256);
+        // more stalled clients than the old fixed sender pool had threads
+        List<RecordingEmitter> stalled = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            stalled.add(subscribe(null, true));
+        }
+        RecordingEmitter healthy = subscribe(null, false);
+
+        for (int i = 1; i <= 10; i++) {
+            publish(i);
+            int expected = i;
+            awaitTrue(() -> healthy.count("event:changes") == expected);
+        }
+
+        assertEquals(stalled.size(), meterRegistry.counter("events.stream.evicted").count());
+        assertEquals(1, meterRegistry.get("events.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void reconnectReplaysTheMessagesAfterLastEventId() {
+        feed = newFeed(32, 256);
+        RecordingEmitter first = subscribe(null, false);
+        for (int i = 1; i <= 3; i++) {
+            publish(i);
+        }
+        awaitTrue(() -> first.count("event:changes") == 3);
+        List<Long> ids = first.ids();
+
+        RecordingEmitter reconnected = subscribe(ids.get(0), false);
+
+        awaitTrue(() -> reconnected.count("event:changes") == 2);
+        assertEquals(ids.subList(1, 3), reconnected.ids());
+        assertEquals(0, reconnected.count("event:reset"));
+    }
+
+    @Test
+    void reconnectFromBeyondTheReplayBufferGetsAReset() {
+        feed = newFeed(32, 2);
+        RecordingEmitter first = subscribe(null, false);
+        for (int i = 1; i <= 4; i++) {
+            publish(i);
+        }
+        awaitTrue(() -> first.count("event:changes") == 4);
+        List<Long> ids = first.ids();
+
+        RecordingEmitter tooOld = subscribe(ids.get(0), false);
+        RecordingEmitter unknown = subscribe(ids.get(3) + 1000, false);
+
+        awaitTrue(() -> tooOld.count("event:reset") == 1 && unknown.count("event:reset") == 1);
+        assertEquals(0, tooOld.count("event:changes"));
+        assertEquals(List.of(ids.get(3)), tooOld.ids());
+    }
+
+    @Test
+    void clientsResetWhenTheChangedRowsCantBeLoaded() {
+        ChangedEventLoader unreachable = new ChangedEventLoader((EventRepository) Proxy.newProxyInstance(
+                EventRepository.class.getClassLoader(), new Class<?>[] {EventRepository.class},
+                (proxy, method, args) -> {
+                    throw new IllegalStateException("connection refused");
+                }));
+        feed = newFeed(unreachable, 32, 256);
+        RecordingEmitter client = subscribe(null, false);
+        publish(1);
+        awaitTrue(() -> client.count("event:changes") == 1);
+
+        // must return normally, or the response cache and version never hear of the change
+        feed.onEventsChanged(new EventsChangedEvent("SEATGEEK", List.of(7L), List.of(), List.of()));
+
+        awaitTrue(() -> client.count("event:reset") == 1);
+        List<Long> ids = client.ids();
+        RecordingEmitter reconnected = subscribe(ids.get(0), false);
+        awaitTrue(() -> reconnected.count("event:reset") == 1);
+    }
+
+    private EventChangeFeed newFeed(int queueCapacity, int replayCapacity) {
+        // events carrying only removed ids are serialized without loading any rows
+        return newFeed(null, queueCapacity, replayCapacity);
+    }
+
+    private EventChangeFeed newFeed(ChangedEventLoader loader, int queueCapacity, int replayCapacity) {
+        return new EventChangeFeed(loader, new ObjectMapper(), meterRegistry, queueCapacity, replayCapacity, 100,
+                Duration.ofMinutes(30), Duration.ofHours(1)) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return nextEmitters.removeFirst();
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(Long lastEventId, boolean stalled) {
+        RecordingEmitter emitter = new RecordingEmitter(stalled ? unstall : null);
+        nextEmitters.addLast(emitter);
+        assertSame(emitter, feed.subscribe(lastEventId));
+        return emitter;
+    }
+
+    private void publish(long removedId) {
+        feed.onEventsChanged(EventsChangedEvent.removed("SEATGEEK", List.of(removedId)));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("timed out");
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Records what would be written to the connection; a stalled one blocks
+     * on its first write like a client that stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch stall;
+        private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingEmitter(CountDownLatch stall) {
+            this.stall = stall;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> frames) {
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder message = new StringBuilder();
+            frames.forEach(frame -> message.append(frame.getData()));
+            sent.add(message.toString());
+        }
+
+        long count(String line) {
+            synchronized (sent) {
+                return sent.stream().filter(m -> m.contains(line + "\n")).count();
+            }
+        }
+
+        List<Long> ids() {
+            List<Long> ids = new ArrayList<>();
+            synchronized (sent) {
+                for (String message : sent) {
+                    Matcher id = ID.matcher(message);
+                    if (id.find()) ids.add(Long.parseLong(id.group(1)));
+                }
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.planit.service;
+
+import com.planit.ingest.EventsChangedEvent;
+import com.planit.repository.CategoryGenreCount;
+import com.planit.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventFacetServiceTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private volatile long musicEvents = 3;
+    // when set, the aggregate query waits on it after reading the table
+    private volatile CountDownLatch slowQuery;
+    private final CountDownLatch queryRead = new CountDownLatch(1);
+
+    private final EventFacetService service = new EventFacetService(repository());
+
+    @Test
+    void allTimeFacetsAreKeptUntilAChange() {
+        assertEquals(3, service.facets(null, null).total());
+        assertEquals(3, service.facets(null, null).total());
+        assertEquals(1, queries.get());
+
+        musicEvents = 5;
+        service.onEventsChanged(changed());
+
+        assertEquals(5, service.facets(null, null).total());
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void facetsComputedAcrossACommitAreNotKept() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        slowQuery = release;
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<EventFacetService.Facets> racing = reader.submit(() -> service.facets(null, null));
+            assertTrue(queryRead.await(10, TimeUnit.SECONDS));
+
+            // the commit lands after the query read the table, before its result is stored
+            musicEvents = 5;
+            service.onEventsChanged(changed());
+            release.countDown();
+            assertEquals(3, racing.get(10, TimeUnit.SECONDS).total());
+        } finally {
+            reader.shutdownNow();
+        }
+
+        assertEquals(5, service.facets(null, null).total());
+        assertEquals(2, queries.get());
+    }
+
+    private static EventsChangedEvent changed() {
+        return EventsChangedEvent.removed("SEATGEEK", List.of(1L));
+    }
+
+    private EventRepository repository() {
+        return (EventRepository) Proxy.newProxyInstance(EventRepository.class.getClassLoader(),
+                new Class<?>[] {EventRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("countByCategoryAndGenre")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    queries.incrementAndGet();
+                    List<CategoryGenreCount> rows = List.of(new CategoryGenreCount("Music", "Rock", musicEvents));
+                    queryRead.countDown();
+                    CountDownLatch slow = slowQuery;
+                    if (slow != null) {
+                        slowQuery = null;
+                        assertTrue(slow.await(10, TimeUnit.SECONDS));
+                    }
+                    return rows;
+                });
+    }
+}
@@ -0,0 +1,144 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.model.Event;
+import com.planit.repository.EventFilter;
+import com.planit.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Keyset pagination on the default JPA path (the in-memory store is off in
+ * the test profile). Most start times are shared by several events, so
+ * pages only line up if ties are broken by id.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EventQueryServiceTest {
+
+    private static final EventFilter ALL = EventFilter.of(null, null, null, null);
+    private static final EventFilter MUSIC = EventFilter.of(List.of("Music"), null, null, null);
+
+    @Autowired
+    private EventQueryService eventQueryService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventResponseCache responseCache;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @BeforeEach
+    void seed() {
+        eventRepository.deleteAllInBatch();
+        responseCache.invalidateAll();
+
+        List<Event> events = new ArrayList<>();
+        Instant base = Instant.parse("2026-03-01T02:00:00.123456Z");
+        for (int i = 0; i < 23; i++) {
+            // seven distinct start times, saved out of order
+            Instant start = base.plusSeconds(3600L * ((i * 5) % 7));
+            events.add(event("sg-" + i, i % 3 == 0 ? "Comedy" : "Music", start));
+        }
+        eventRepository.saveAll(events);
+    }
+
+    @Test
+    void pagesConcatenateToTheUnpagedResult() {
+        for (EventFilter filter : List.of(ALL, MUSIC)) {
+            List<Long> unpaged = ids(eventQueryService.find(filter, null, null).events());
+
+            for (int limit : new int[] {1, 3, 4, 100}) {
+                List<Long> paged = new ArrayList<>();
+                EventQueryService.EventPage page = eventQueryService.find(filter, limit, null);
+                while (true) {
+                    assertTrue(page.events().size() <= limit);
+                    paged.addAll(ids(page.events()));
+                    if (page.next() == null) break;
+                    page = eventQueryService.find(filter, limit, page.next());
+                }
+
+                assertEquals(unpaged, paged, filter + " limit=" + limit);
+            }
+        }
+    }
+
+    @Test
+    void unpagedResultIsOrderedByStartTimeThenId() {
+        List<Event> events = eventQueryService.find(ALL, null, null).events();
+
+        assertEquals(23, events.size());
+        for (int i = 1; i < events.size(); i++) {
+            Event previous = events.get(i - 1);
+            Event current = events.get(i);
+            int byStart = previous.getStartTime().compareTo(current.getStartTime());
+            assertTrue(byStart < 0 || (byStart == 0 && previous.getId() < current.getId()), "out of order at " + i);
+        }
+    }
+
+    @Test
+    void followingXNextCursorWalksTheSameRows() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        List<Long> expected = ids(eventQueryService.find(ALL, null, null).events());
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/events").param("limit", "5");
+            if (cursor != null) request.param("cursor", cursor);
+            MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+            assertEquals(200, response.getStatus());
+            new ObjectMapper().readTree(response.getContentAsString()).forEach(e -> walked.add(e.get("id").asLong()));
+            cursor = response.getHeader("X-Next-Cursor");
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, walked);
+        assertEquals(5, pages);
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/events")
+                .param("limit", "5")
+                .param("cursor", "bad cursor!")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn().getResponse();
+
+        assertEquals(400, response.getStatus());
+    }
+
+    private static List<Long> ids(List<Event> events) {
+        return events.stream().map(Event::getId).toList();
+    }
+
+    private static Event event(String externalId, String category, Instant start) {
+        Event event = new Event();
+        event.setProvider("SEATGEEK");
+        event.setExternalId(externalId);
+        event.setTitle("Show " + externalId);
+        event.setCategory(category);
+        event.setStartTime(start);
+        return event;
+    }
+}
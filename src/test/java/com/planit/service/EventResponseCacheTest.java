@@ -0,0 +1,125 @@
+package com.planit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventResponseCacheTest {
+
+    private final List<String> rendered = new ArrayList<>();
+
+    @Test
+    void renderOverlappingAnInvalidationIsNotStored() {
+        EventResponseCache cache = new EventResponseCache(16, 1 << 20, 300);
+
+        EventResponseCache.CachedResponse stale = cache.get("music", () -> {
+            // ingestion commits while this request is still reading the old rows
+            cache.invalidateAll();
+            return response("[old]");
+        });
+        EventResponseCache.CachedResponse fresh = cache.get("music", render("music", "[new]"));
+
+        assertEquals("[old]", body(stale));
+        assertEquals("[new]", body(fresh));
+        assertSame(fresh, cache.get("music", render("music", "[newer]")));
+        assertEquals(List.of("music"), rendered);
+    }
+
+    @Test
+    void invalidationDropsEverything() {
+        EventResponseCache cache = new EventResponseCache(16, 1 << 20, 300);
+        cache.get("a", render("a", "[a]"));
+        cache.get("b", render("b", "[b]"));
+
+        cache.invalidateAll();
+        cache.get("a", render("a", "[a]"));
+
+        assertEquals(List.of("a", "b", "a"), rendered);
+        assertEquals(1, cache.stats().entries());
+        assertEquals(1, cache.stats().invalidations());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryOverMaxEntries() {
+        EventResponseCache cache = new EventResponseCache(2, 1 << 20, 300);
+        cache.get("a", render("a", "[a]"));
+        cache.get("b", render("b", "[b]"));
+        cache.get("a", render("a", "[a]"));
+
+        cache.get("c", render("c", "[c]"));
+        cache.get("a", render("a", "[a]"));
+        cache.get("b", render("b", "[b]"));
+
+        assertEquals(List.of("a", "b", "c", "b"), rendered);
+        EventResponseCache.Stats stats = cache.stats();
+        assertEquals(2, stats.entries());
+        assertEquals(2, stats.evictions());
+        assertEquals(2, stats.hits());
+    }
+
+    @Test
+    void evictsOverMaxBytesCountingTheGzippedCopy() {
+        EventResponseCache cache = new EventResponseCache(16, 20, 300);
+        cache.get("a", () -> new EventResponseCache.CachedResponse(bytes("aaaaa"), bytes("zzzzz"), null));
+        cache.get("b", render("b", "bbbbbbbb"));
+        assertEquals(18, cache.stats().bytes());
+
+        cache.get("c", render("c", "cccc"));
+
+        EventResponseCache.Stats stats = cache.stats();
+        assertEquals(2, stats.entries());
+        assertEquals(12, stats.bytes());
+        assertEquals(1, stats.evictions());
+    }
+
+    @Test
+    void aResponseLargerThanMaxBytesIsServedButNotStored() {
+        EventResponseCache cache = new EventResponseCache(16, 4, 300);
+        cache.get("small", render("small", "[s]"));
+
+        EventResponseCache.CachedResponse large = cache.get("large", render("large", "[large]"));
+
+        assertEquals("[large]", body(large));
+        assertEquals(1, cache.stats().entries());
+        assertEquals(0, cache.stats().evictions());
+    }
+
+    @Test
+    void expiredEntriesAreRenderedAgain() {
+        EventResponseCache cache = new EventResponseCache(16, 1 << 20, 0);
+        cache.get("a", render("a", "[a]"));
+
+        cache.get("a", render("a", "[a2]"));
+
+        assertEquals(List.of("a", "a"), rendered);
+        EventResponseCache.Stats stats = cache.stats();
+        assertEquals(1, stats.expirations());
+        assertEquals(0, stats.hits());
+        assertEquals(1, stats.entries());
+        assertEquals(4, stats.bytes());
+    }
+
+    private Supplier<EventResponseCache.CachedResponse> render(String key, String body) {
+        return () -> {
+            rendered.add(key);
+            return response(body);
+        };
+    }
+
+    private static EventResponseCache.CachedResponse response(String body) {
+        return new EventResponseCache.CachedResponse(bytes(body), null, null);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String body(EventResponseCache.CachedResponse response) {
+        return new String(response.body(), StandardCharsets.UTF_8);
+    }
+}
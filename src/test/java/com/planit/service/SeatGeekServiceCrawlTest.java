@@ -0,0 +1,136 @@
+package com.planit.service;
+
+import com.planit.ingest.IngestionMetrics;
+import com.planit.ingest.IngestionProgress;
+import com.planit.ingest.Region;
+import com.planit.ingest.ResponseArchive;
+import com.planit.model.Event;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatGeekServiceCrawlTest {
+
+    private static final int TOTAL_EVENTS = 7;
+    private static final int PAGE_SIZE = 3;
+    private static final Region AUSTIN = Region.parse("Austin:TX:US");
+
+    private HttpServer server;
+    private volatile String badDateEventId;
+    private final List<Integer> pagesRequested = Collections.synchronizedList(new ArrayList<>());
+    private final List<Event> saved = new ArrayList<>();
+    private ResponseArchive archive;
+
+    @TempDir
+    Path archiveDir;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/events", exchange -> {
+            int page = Integer.parseInt(queryParam(exchange.getRequestURI(), "page"));
+            pagesRequested.add(page);
+            byte[] body = pageJson(page).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        archive = new ResponseArchive(archiveDir, false, DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void stopStub() throws Exception {
+        server.stop(0);
+        archive.destroy();
+    }
+
+    @Test
+    void pagesThroughMetaTotal() throws Exception {
+        SeatGeekService service = newService(10);
+        IngestionProgress progress = new IngestionProgress();
+
+        service.fetchEvents(AUSTIN, saved::add, progress);
+
+        assertEquals(List.of(1, 2, 3), pagesRequested.stream().sorted().toList());
+        assertEquals(TOTAL_EVENTS, saved.stream().map(Event::getExternalId).distinct().count());
+        assertTrue(progress.isComplete());
+    }
+
+    @Test
+    void marksTheCrawlTruncatedAtMaxPages() throws Exception {
+        SeatGeekService service = newService(2);
+        IngestionProgress progress = new IngestionProgress();
+
+        service.fetchEvents(AUSTIN, saved::add, progress);
+
+        assertEquals(List.of(1, 2), pagesRequested.stream().sorted().toList());
+        assertEquals(2 * PAGE_SIZE, saved.size());
+        assertFalse(progress.isComplete());
+    }
+
+    @Test
+    void anEventThatFailsToMapLeavesTheCrawlIncomplete() throws Exception {
+        badDateEventId = "4";
+        SeatGeekService service = newService(10);
+        IngestionProgress progress = new IngestionProgress();
+
+        service.fetchEvents(AUSTIN, saved::add, progress);
+
+        // its row is still live, so nothing may be tombstoned off this crawl
+        assertEquals(TOTAL_EVENTS - 1, saved.size());
+        assertFalse(progress.hasErrors());
+        assertFalse(progress.isComplete());
+    }
+
+    private SeatGeekService newService(int maxPages) {
+        SeatGeekService service = new SeatGeekService(new RestTemplate(),
+                new IngestionMetrics(new SimpleMeterRegistry()), archive);
+        ReflectionTestUtils.setField(service, "baseUrl", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(service, "clientId", "test-client");
+        ReflectionTestUtils.setField(service, "pageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(service, "maxPages", maxPages);
+        ReflectionTestUtils.setField(service, "maxConcurrency", 2);
+        ReflectionTestUtils.setField(service, "requestsPerSecond", 50.0);
+        service.initCrawler();
+        return service;
+    }
+
+    private String pageJson(int page) {
+        StringJoiner events = new StringJoiner(",");
+        for (int i = (page - 1) * PAGE_SIZE; i < Math.min(page * PAGE_SIZE, TOTAL_EVENTS); i++) {
+            String start = String.valueOf(i).equals(badDateEventId) ? "TBA" : "2026-03-01T02:00:00";
+            events.add("""
+                    {"id":%d,"title":"Show %d","url":"https://example.com/%d",
+                     "datetime_utc":"%s"}
+                    """.formatted(i, i, i, start));
+        }
+        return """
+                {"events":[%s],
+                 "meta":{"total":%d,"page":%d,"per_page":%d}}
+                """.formatted(events, TOTAL_EVENTS, page, PAGE_SIZE);
+    }
+
+    private static String queryParam(URI uri, String name) {
+        for (String pair : uri.getRawQuery().split("&")) {
+            String[] kv = pair.split("=", 2);
+            if (kv[0].equals(name)) return kv[1];
+        }
+        throw new IllegalArgumentException("missing " + name);
+    }
+}
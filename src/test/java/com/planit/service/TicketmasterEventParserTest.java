@@ -0,0 +1,102 @@
+package com.planit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planit.model.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketmasterEventParserTest {
+
+    private static final int EVENTS = 5_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TicketmasterEventParser parser = new TicketmasterEventParser(mapper);
+
+    @Test
+    void streamingParseMatchesTreeParse() throws Exception {
+        byte[] body = pageJson(50).getBytes(StandardCharsets.UTF_8);
+
+        List<Event> streamed = new ArrayList<>();
+        int totalPages = parser.parse(new ByteArrayInputStream(body), streamed::add);
+
+        assertEquals(7, totalPages);
+        assertEquals(treeParse(new ByteArrayInputStream(body)), streamed);
+    }
+
+    @Test
+    void streamingParseAllocatesLessThanTreeParse() throws Exception {
+        byte[] body = pageJson(EVENTS).getBytes(StandardCharsets.UTF_8);
+
+        // warm up both paths so class loading and JIT don't skew the numbers
+        for (int i = 0; i < 3; i++) {
+            treeParse(new ByteArrayInputStream(body));
+            parser.parse(new ByteArrayInputStream(body), e -> {});
+        }
+
+        long treeBytes = allocatedBy(() -> treeParse(new ByteArrayInputStream(body)));
+        long streamBytes = allocatedBy(() -> parser.parse(new ByteArrayInputStream(body), e -> {}));
+
+        assertTrue(streamBytes < treeBytes,
+                "streaming allocated " + streamBytes + " bytes, tree allocated " + treeBytes);
+    }
+
+    /**
+     * The previous path: buffer the body into a String, build the full tree, then map.
+     */
+    private List<Event> treeParse(InputStream in) throws Exception {
+        String body = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        JsonNode root = mapper.readTree(body);
+
+        List<Event> events = new ArrayList<>();
+        for (JsonNode node : root.path("_embedded").path("events")) {
+            Event event = parser.map(node);
+            if (event != null) events.add(event);
+        }
+        return events;
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    private static long allocatedBy(Work work) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        work.run();
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static String pageJson(int count) {
+        StringJoiner events = new StringJoiner(",");
+        for (int i = 0; i < count; i++) {
+            events.add("""
+                    {"id":"tm-%d","name":"Show %d","url":"https://example.com/%d",
+                     "classifications":[{"segment":{"name":"Music"},"genre":{"name":"Rock"}}],
+                     "_embedded":{"venues":[{"name":"Stubbs BBQ",
+                        "location":{"latitude":"30.268","longitude":"-97.736"}}]},
+                     "dates":{"start":{"localDate":"2026-03-01","localTime":"19:30:00"},
+                              "timezone":"America/Chicago"}}
+                    """.formatted(i, i, i));
+        }
+        return """
+                {"_links":{"self":{"href":"/discovery/v2/events.json"}},
+                 "_embedded":{"events":[%s]},
+                 "page":{"size":%d,"totalElements":%d,"totalPages":7,"number":0}}
+                """.formatted(events, count, count * 7);
+    }
+}
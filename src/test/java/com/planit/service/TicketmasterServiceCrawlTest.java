@@ -0,0 +1,163 @@
+package com.planit.service;
+
+import com.planit.ingest.IngestionMetrics;
+import com.planit.ingest.IngestionProgress;
+import com.planit.ingest.Region;
+import com.planit.ingest.ResponseArchive;
+import com.planit.model.Event;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketmasterServiceCrawlTest {
+
+    private static final int TOTAL_PAGES = 4;
+    private static final int PAGE_SIZE = 3;
+    private static final Region AUSTIN = Region.parse("Austin:TX:US");
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<URI> requestUris = Collections.synchronizedList(new ArrayList<>());
+    private final List<Event> saved = new ArrayList<>();
+    private ResponseArchive archive;
+
+    @TempDir
+    Path archiveDir;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/events.json", exchange -> {
+            requests.incrementAndGet();
+            requestUris.add(exchange.getRequestURI());
+            int page = Integer.parseInt(queryParam(exchange.getRequestURI(), "page"));
+            byte[] body = pageJson(page).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        archive = new ResponseArchive(archiveDir, true, DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void stopStub() throws Exception {
+        server.stop(0);
+        archive.destroy();
+    }
+
+    @Test
+    void crawlsEveryPageAndEmitsAllEvents() throws Exception {
+        TicketmasterService service = newService(1000);
+        IngestionProgress progress = new IngestionProgress();
+
+        service.fetchEvents(AUSTIN, saved::add, progress);
+
+        assertEquals(TOTAL_PAGES, requests.get());
+        assertEquals(TOTAL_PAGES * PAGE_SIZE, saved.size());
+        assertEquals(TOTAL_PAGES * PAGE_SIZE, saved.stream().map(Event::getExternalId).distinct().count());
+        assertTrue(progress.isComplete());
+    }
+
+    @Test
+    void stopsAtDeepPagingCap() throws Exception {
+        // size * page must stay below maxResults, so only pages 0 and 1 are allowed
+        TicketmasterService service = newService(2 * PAGE_SIZE);
+        IngestionProgress progress = new IngestionProgress();
+
+        service.fetchEvents(AUSTIN, saved::add, progress);
+
+        assertEquals(2, requests.get());
+        assertEquals(2 * PAGE_SIZE, saved.size());
+        // the events past the cap weren't seen, so nothing may be tombstoned
+        assertFalse(progress.isComplete());
+        assertFalse(progress.hasErrors());
+    }
+
+    @Test
+    void queriesTheRegionsCityAndState() throws Exception {
+        TicketmasterService service = newService(PAGE_SIZE);
+
+        service.fetchEvents(Region.parse("San Antonio:TX:US"), saved::add, new IngestionProgress());
+
+        URI uri = requestUris.get(0);
+        assertEquals("San%20Antonio", queryParam(uri, "city"));
+        assertEquals("TX", queryParam(uri, "stateCode"));
+        assertEquals("US", queryParam(uri, "countryCode"));
+    }
+
+    @Test
+    void replaysArchivedPagesIntoTheSameEvents() throws Exception {
+        TicketmasterService service = newService(1000);
+        service.fetchEvents(AUSTIN, saved::add, new IngestionProgress());
+
+        List<ResponseArchive.Entry> entries = archive.entries(service.name(), List.of("austin-tx"), null, null);
+        List<Event> replayed = new ArrayList<>();
+        archive.read(entries, (entry, body) -> service.parsePage(body, replayed::add));
+
+        assertEquals(TOTAL_PAGES, entries.size());
+        assertEquals(externalIds(saved), externalIds(replayed));
+        assertEquals(TOTAL_PAGES, requests.get());
+    }
+
+    private static Set<String> externalIds(List<Event> events) {
+        Set<String> ids = new TreeSet<>();
+        events.forEach(e -> ids.add(e.getExternalId()));
+        return ids;
+    }
+
+    private TicketmasterService newService(int maxResults) {
+        TicketmasterService service = new TicketmasterService(new RestTemplate(),
+                new IngestionMetrics(new SimpleMeterRegistry()), archive);
+        ReflectionTestUtils.setField(service, "baseUrl",
+                "http://localhost:" + server.getAddress().getPort() + "/events.json");
+        ReflectionTestUtils.setField(service, "tmApiKey", "test-key");
+        ReflectionTestUtils.setField(service, "pageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(service, "maxResults", maxResults);
+        ReflectionTestUtils.setField(service, "maxConcurrency", 2);
+        ReflectionTestUtils.setField(service, "requestsPerSecond", 50.0);
+        service.initCrawler();
+        return service;
+    }
+
+    private static String pageJson(int page) {
+        StringJoiner events = new StringJoiner(",");
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            String id = "tm-" + page + "-" + i;
+            events.add("""
+                    {"id":"%s","name":"Show %s","url":"https://example.com/%s",
+                     "dates":{"start":{"dateTime":"2026-03-01T02:00:00Z"}}}
+                    """.formatted(id, id, id));
+        }
+        return """
+                {"_embedded":{"events":[%s]},
+                 "page":{"size":%d,"totalElements":%d,"totalPages":%d,"number":%d}}
+                """.formatted(events, PAGE_SIZE, PAGE_SIZE * TOTAL_PAGES, TOTAL_PAGES, page);
+    }
+
+    private static String queryParam(URI uri, String name) {
+        for (String pair : uri.getRawQuery().split("&")) {
+            String[] kv = pair.split("=", 2);
+            if (kv[0].equals(name)) return kv[1];
+        }
+        throw new IllegalArgumentException("missing " + name);
+    }
+}
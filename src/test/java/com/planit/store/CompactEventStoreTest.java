@@ -0,0 +1,152 @@
+package com.planit.store;
+
+import com.planit.model.Event;
+import com.planit.repository.EventCursor;
+import com.planit.repository.EventFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactEventStoreTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T00:00:00Z");
+    private static final List<String> CATEGORIES = List.of("Music", "Sports", "Arts & Theatre");
+    private static final List<String> GENRES = List.of("Rock", "Pop", "Basketball", "Theatre", "Jazz");
+
+    @Test
+    void matchesAFullScanForEveryFilterShape() {
+        List<Event> events = randomEvents(500, new Random(24));
+        CompactEventStore store = CompactEventStore.of(events);
+
+        List<EventFilter> filters = List.of(
+                EventFilter.of(null, null, null, null),
+                EventFilter.of(List.of("Music"), null, null, null),
+                EventFilter.of(List.of("Music", "Sports"), List.of("Rock", "Basketball"), null, null),
+                EventFilter.of(null, List.of("Jazz"), T0.plusSeconds(3600 * 24), null),
+                EventFilter.of(null, null, T0.plusSeconds(3600 * 12), T0.plusSeconds(3600 * 48)),
+                EventFilter.of(List.of("Nope"), null, null, null));
+
+        for (EventFilter filter : filters) {
+            assertEquals(ids(reference(events, filter, null, null)), ids(store.query(filter, null, null)), filter.toString());
+        }
+    }
+
+    @Test
+    void pagesLikeTheKeysetQuery() {
+        List<Event> events = randomEvents(300, new Random(7));
+        CompactEventStore store = CompactEventStore.of(events);
+        EventFilter filter = EventFilter.of(List.of("Music", "Arts & Theatre"), null, T0, null);
+
+        List<Long> paged = new ArrayList<>();
+        EventCursor after = null;
+        List<Event> page;
+        do {
+            page = store.query(filter, after, 25);
+            page.forEach(e -> paged.add(e.getId()));
+            if (!page.isEmpty()) {
+                Event last = page.get(page.size() - 1);
+                after = new EventCursor(last.getStartTime(), last.getId());
+            }
+        } while (page.size() == 25);
+
+        assertEquals(ids(reference(events, filter, null, 1000)), paged);
+    }
+
+    @Test
+    void eventsWithoutStartTimeOnlyShowUpUnpagedAndLast() {
+        Event untimed = event(1, null, "Music", "Rock");
+        Event timed = event(2, T0, "Music", "Rock");
+        CompactEventStore store = CompactEventStore.of(List.of(untimed, timed));
+
+        assertEquals(List.of(2L, 1L), ids(store.query(EventFilter.of(null, null, null, null), null, null)));
+        assertEquals(List.of(2L), ids(store.query(EventFilter.of(null, null, null, null), null, 10)));
+        assertEquals(List.of(2L), ids(store.query(EventFilter.of(null, null, T0.minusSeconds(1), null), null, null)));
+    }
+
+    @Test
+    void materializesTheSameFields() {
+        Event event = event(5, T0.plusNanos(500), "Music", "Rock");
+        event.setEndTime(T0.plusSeconds(7200));
+        event.setLatitude(30.2671530);
+        event.setLongitude(-97.7430608);
+        event.setRegion("austin-tx");
+
+        Event copy = CompactEventStore.of(List.of(event)).query(EventFilter.of(null, null, null, null), null, null).get(0);
+
+        assertEquals(event, copy);
+    }
+
+    @Test
+    void withChangesMatchesARebuild() {
+        Random random = new Random(99);
+        List<Event> events = randomEvents(400, random);
+        CompactEventStore store = CompactEventStore.of(events);
+
+        Map<Long, Event> expected = new LinkedHashMap<>();
+        events.forEach(e -> expected.put(e.getId(), e));
+        List<Long> removed = List.of(3L, 50L, 399L);
+        removed.forEach(expected::remove);
+        List<Event> upserted = new ArrayList<>();
+        for (long id : List.of(10L, 11L, 401L, 402L)) {
+            Event e = event(id, random.nextBoolean() ? T0.plusSeconds(random.nextInt(3600 * 72)) : null,
+                    CATEGORIES.get(random.nextInt(CATEGORIES.size())), GENRES.get(random.nextInt(GENRES.size())));
+            upserted.add(e);
+            expected.put(id, e);
+        }
+
+        CompactEventStore patched = store.withChanges(removed, upserted);
+
+        EventFilter all = EventFilter.of(null, null, null, null);
+        assertEquals(expected.size(), patched.size());
+        assertEquals(CompactEventStore.of(expected.values()).query(all, null, null), patched.query(all, null, null));
+        // the original is untouched
+        assertEquals(events.size(), store.size());
+    }
+
+    private static List<Event> reference(List<Event> events, EventFilter filter, EventCursor after, Integer limit) {
+        boolean paged = limit != null || after != null;
+        Stream<Event> matches = events.stream()
+                .filter(e -> !filter.hasCategories() || filter.categories().contains(e.getCategory()))
+                .filter(e -> !filter.hasGenres() || filter.genres().contains(e.getGenre()))
+                .filter(e -> filter.from() == null || (e.getStartTime() != null && !e.getStartTime().isBefore(filter.from())))
+                .filter(e -> filter.to() == null || (e.getStartTime() != null && e.getStartTime().isBefore(filter.to())))
+                .filter(e -> !paged || e.getStartTime() != null)
+                .sorted(Comparator.comparing(Event::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Event::getId));
+        return (limit != null ? matches.limit(limit) : matches).toList();
+    }
+
+    private static List<Event> randomEvents(int count, Random random) {
+        List<Event> events = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            // some share a start time so ids break ties, and a few have none
+            Instant start = random.nextInt(20) == 0 ? null : T0.plusSeconds(3600L * random.nextInt(72));
+            String category = random.nextInt(10) == 0 ? null : CATEGORIES.get(random.nextInt(CATEGORIES.size()));
+            events.add(event(id, start, category, GENRES.get(random.nextInt(GENRES.size()))));
+        }
+        Collections.shuffle(events, random);
+        return events;
+    }
+
+    private static Event event(long id, Instant start, String category, String genre) {
+        Event event = new Event();
+        event.setId(id);
+        event.setExternalId("ext-" + id);
+        event.setProvider(id % 2 == 0 ? "TICKETMASTER" : "SEATGEEK");
+        event.setTitle("Event " + id);
+        event.setCategory(category);
+        event.setGenre(genre);
+        event.setStartTime(start);
+        event.setVenueName("Venue " + id % 7);
+        event.setUrl("https://example.com/" + id);
+        return event;
+    }
+
+    private static List<Long> ids(List<Event> events) {
+        return events.stream().map(Event::getId).toList();
+    }
+}